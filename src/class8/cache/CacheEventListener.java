@@ -0,0 +1,29 @@
+package class8.cache;
+
+import java.util.List;
+
+// ============================================================================
+// CacheEventListener: optional callbacks for what SearchCache does. Every
+// method defaults to a no-op; wrap slow listeners (e.g. printing) in a
+// RateLimitedCacheListener so they cannot throttle the cache.
+// ============================================================================
+interface CacheEventListener {
+
+    CacheEventListener NONE = new CacheEventListener() {
+    };
+
+    default void onLoaded(String query, List<String> results, long loadNanos) {
+    }
+
+    default void onUpdated(String query, List<String> results) {
+    }
+
+    default void onEvicted(String query) {
+    }
+
+    default void onExpired(String query) {
+    }
+
+    default void onLoadFailed(String query, Throwable error) {
+    }
+}
@@ -0,0 +1,39 @@
+package class8.cache;
+
+// ============================================================================
+// CacheStats: point-in-time counters of one cache (or the sum of several shards)
+//
+// weight is the estimated heap footprint of the entries in bytes; loadLatency
+// holds one sample per round trip to the search engine.
+// ============================================================================
+record CacheStats(long hits, long misses, long loads, long evictions, long expirations,
+                  long size, long weight, LatencyHistogram.Snapshot loadLatency) {
+
+    public static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0, 0, 0, LatencyHistogram.Snapshot.EMPTY);
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    public CacheStats plus(CacheStats other) {
+        return new CacheStats(
+                hits + other.hits,
+                misses + other.misses,
+                loads + other.loads,
+                evictions + other.evictions,
+                expirations + other.expirations,
+                size + other.size,
+                weight + other.weight,
+                loadLatency.plus(other.loadLatency)
+        );
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d (%.1f%% hit) loads=%d evictions=%d expirations=%d size=%d weight=%dB "
+                        + "load mean=%.1fms p50<=%.1fms p99<=%.1fms",
+                hits, misses, hitRate() * 100, loads, evictions, expirations, size, weight,
+                loadLatency.meanMillis(), loadLatency.percentileMillis(50), loadLatency.percentileMillis(99));
+    }
+}
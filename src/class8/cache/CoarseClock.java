@@ -0,0 +1,33 @@
+package class8.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// ============================================================================
+// CoarseClock: System.nanoTime() sampled once per millisecond by a daemon
+// thread. Reading it is a single volatile load, which is all the precision
+// TTL checks on the cache hit path need.
+// ============================================================================
+final class CoarseClock {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static volatile long now = System.nanoTime();
+
+    static {
+        Thread ticker = new Thread(() -> {
+            while (true) {
+                LockSupport.parkNanos(TICK_NANOS);
+                now = System.nanoTime();
+            }
+        }, "coarse-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    private CoarseClock() {
+    }
+
+    public static long nanoTime() {
+        return now;
+    }
+}
@@ -0,0 +1,62 @@
+package class8.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// ============================================================================
+// ExpiryQueue: deadline-ordered queue of cache entries
+//
+// SearchCache schedules a key every time its entry is inserted or updated.
+// A deadline holds only the key and the time, never the entry, so entries
+// that are evicted or replaced become garbage right away; when a deadline
+// comes due the cache looks the key up again and removes it only if the
+// current entry has expired. An update leaves the previous deadline in the
+// queue until its time, so a key has at most a few small deadlines queued.
+// Deadlines are read from CoarseClock, the same clock SearchResult checks.
+// ============================================================================
+class ExpiryQueue {
+
+    static class Deadline implements Delayed {
+        private final String query;
+        private final long expiresAt;
+
+        Deadline(String query, long expiresAt) {
+            this.query = query;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAt - CoarseClock.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.signum(expiresAt - ((Deadline) other).expiresAt); // nanoTime values may wrap
+        }
+    }
+
+    private final DelayQueue<Deadline> queue = new DelayQueue<>();
+
+    public void schedule(String query, SearchResult entry) {
+        queue.add(new Deadline(query, entry.getHardExpiresAt()));
+    }
+
+    // Removes and returns only the deadlines that have passed: O(k log n) for k due entries
+    public List<Deadline> pollExpired() {
+        List<Deadline> due = new ArrayList<>();
+        queue.drainTo(due);
+        return due;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+}
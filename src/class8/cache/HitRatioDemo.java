@@ -0,0 +1,81 @@
+package class8.cache;
+
+import java.util.*;
+
+// ============================================================================
+// LruSimulation: plain LRU baseline built on an access-ordered LinkedHashMap
+// ============================================================================
+class LruSimulation {
+    private final LinkedHashMap<String, Boolean> map;
+
+    public LruSimulation(int maximumSize) {
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    public boolean access(String key) {
+        if (map.get(key) != null) {
+            return true;
+        }
+        map.put(key, Boolean.TRUE);
+        return false;
+    }
+}
+
+// ============================================================================
+// Main: replays the same Zipfian query trace (with one-off long-tail queries
+// mixed in) against plain LRU and W-TinyLFU and prints the hit ratios
+// ============================================================================
+public class HitRatioDemo {
+
+    static List<String> buildTrace(int length, int distinctQueries, double exponent, double oneOffRatio, long seed) {
+        ZipfGenerator zipf = new ZipfGenerator(distinctQueries, exponent, seed);
+        Random random = new Random(seed + 1);
+        List<String> trace = new ArrayList<>(length);
+        int oneOffs = 0;
+        for (int i = 0; i < length; i++) {
+            if (random.nextDouble() < oneOffRatio) {
+                trace.add("one-off-" + oneOffs++);
+            } else {
+                trace.add("query-" + zipf.next());
+            }
+        }
+        return trace;
+    }
+
+    static double lruHitRatio(List<String> trace, int maximumSize) {
+        LruSimulation lru = new LruSimulation(maximumSize);
+        long hits = trace.stream().filter(lru::access).count();
+        return (double) hits / trace.size();
+    }
+
+    static double tinyLfuHitRatio(List<String> trace, int maximumSize) {
+        WindowTinyLfuPolicy<String> policy = new WindowTinyLfuPolicy<>(maximumSize);
+        long hits = 0;
+        for (String key : trace) {
+            if (policy.contains(key)) {
+                policy.recordAccess(key);
+                hits++;
+            } else {
+                policy.recordInsert(key);
+            }
+        }
+        return (double) hits / trace.size();
+    }
+
+    public static void main(String[] args) {
+        List<String> trace = buildTrace(2_000_000, 100_000, 0.9, 0.2, 42);
+
+        System.out.println("=== Hit ratio on Zipf(0.9) trace, 100k queries, 20% one-off ===");
+        System.out.println(String.format("%10s | %8s | %10s", "size", "LRU", "W-TinyLFU"));
+        for (int size : List.of(100, 1_000, 5_000, 10_000)) {
+            double lru = lruHitRatio(trace, size);
+            double tinyLfu = tinyLfuHitRatio(trace, size);
+            System.out.println(String.format("%10d | %7.2f%% | %9.2f%%", size, lru * 100, tinyLfu * 100));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package class8.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// ============================================================================
+// LatencyHistogram: power-of-two buckets of nanoseconds (bucket i holds values
+// in [2^(i-1), 2^i)). Recording is one striped increment, so it can be called
+// from every loader thread; percentiles are accurate to within a factor of 2.
+// ============================================================================
+class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    record Snapshot(long[] counts, long count, long totalNanos) {
+
+        static final Snapshot EMPTY = new Snapshot(new long[BUCKETS], 0, 0);
+
+        public double meanMillis() {
+            return count == 0 ? 0 : totalNanos / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        // Upper bound of the bucket that contains the given percentile (0..100)
+        public double percentileMillis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100 * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBoundNanos(i) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+                }
+            }
+            return upperBoundNanos(counts.length - 1) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        // 1L << 63 would be negative, the last bucket is open-ended
+        private static long upperBoundNanos(int bucket) {
+            return bucket >= 63 ? Long.MAX_VALUE : 1L << bucket;
+        }
+
+        public Snapshot plus(Snapshot other) {
+            long[] merged = Arrays.copyOf(counts, BUCKETS);
+            for (int i = 0; i < BUCKETS; i++) {
+                merged[i] += other.counts[i];
+            }
+            return new Snapshot(merged, count + other.count, totalNanos + other.totalNanos);
+        }
+    }
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value))].increment();
+        count.increment();
+        totalNanos.add(value);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return new Snapshot(counts, count.sum(), totalNanos.sum());
+    }
+}
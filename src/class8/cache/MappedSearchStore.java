@@ -0,0 +1,278 @@
+package class8.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ============================================================================
+// MappedSearchStore: persistent second tier behind SearchCache
+//
+// File layout (memory-mapped, append-only):
+//   header : int magic | int unused | long end-of-data
+//   record : byte status | int bodyLength | int keyLength | key |
+//            long expiresAtMillis | int count | (int length | bytes) * count
+//
+// Replacing or removing a query flips the old record's status byte to DEAD.
+// The in-memory index (query -> record offset) is rebuilt by scanning the file
+// on open. Once dead records take up more than half of the data, the live
+// ones are copied out and written back packed at the start of the same
+// mapping: no second file, no remapping, and the channel stays open, so a
+// failed compaction leaves the store as it was. While records move the header
+// says "empty", so a crash in the middle loses the tier but never corrupts it.
+// The file keeps its size; later appends reuse the space. Expiry is
+// wall-clock time so it survives restarts.
+// ============================================================================
+class MappedSearchStore implements Closeable {
+
+    record Entry(List<String> results, long expiresAtMillis) {
+    }
+
+    private static final int MAGIC = 0x53434c32; // "SCL2"
+    private static final int HEADER_SIZE = 16;
+    private static final int END_OFFSET = 8;
+    private static final byte LIVE = 1;
+    private static final byte DEAD = 0;
+    private static final long MIN_COMPACTION_BYTES = 64 * 1024;
+
+    private final Path path;
+    private final long initialCapacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Integer> index = new HashMap<>();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int end;
+    private long deadBytes;
+
+    public MappedSearchStore(Path path) throws IOException {
+        this(path, 1 << 20);
+    }
+
+    public MappedSearchStore(Path path, long initialCapacity) throws IOException {
+        this.path = path;
+        this.initialCapacity = initialCapacity;
+        open();
+    }
+
+    public Entry get(String query) {
+        lock.lock();
+        try {
+            Integer offset = index.get(query);
+            if (offset == null) {
+                return null;
+            }
+            Entry entry = readEntry(offset);
+            if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+                markDead(query, offset);
+                maybeCompact();
+                return null;
+            }
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(String query, List<String> results, long expiresAtMillis) {
+        byte[] key = query.getBytes(StandardCharsets.UTF_8);
+        List<byte[]> values = new ArrayList<>(results.size());
+        int bodyLength = 4 + key.length + 8 + 4;
+        for (String result : results) {
+            byte[] value = result.getBytes(StandardCharsets.UTF_8);
+            values.add(value);
+            bodyLength += 4 + value.length;
+        }
+
+        lock.lock();
+        try {
+            ensureCapacity(5 + bodyLength);
+            int offset = end;
+            buffer.position(offset);
+            buffer.put(LIVE).putInt(bodyLength).putInt(key.length).put(key).putLong(expiresAtMillis).putInt(values.size());
+            for (byte[] value : values) {
+                buffer.putInt(value.length).put(value);
+            }
+            end = buffer.position();
+            buffer.putLong(END_OFFSET, end); // publish the record only after it is fully written
+
+            Integer previous = index.put(query, offset);
+            if (previous != null) {
+                buffer.put(previous, DEAD);
+                deadBytes += recordLength(previous);
+            }
+            maybeCompact();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(String query) {
+        lock.lock();
+        try {
+            Integer offset = index.get(query);
+            if (offset != null) {
+                markDead(query, offset);
+                maybeCompact();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // file handling (callers hold the lock)
+    // ------------------------------------------------------------------------
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = channel.size() < HEADER_SIZE;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), initialCapacity));
+
+        if (fresh) {
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(END_OFFSET, HEADER_SIZE);
+        } else if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a search store file: " + path);
+        }
+
+        end = (int) buffer.getLong(END_OFFSET);
+        index.clear();
+        deadBytes = 0;
+        long now = System.currentTimeMillis();
+        for (int offset = HEADER_SIZE; offset < end; offset += recordLength(offset)) {
+            if (buffer.get(offset) == DEAD) {
+                deadBytes += recordLength(offset);
+                continue;
+            }
+            String query = readKey(offset);
+            if (readEntry(offset).expiresAtMillis() <= now) {
+                markDead(query, offset);
+            } else {
+                index.put(query, offset);
+            }
+        }
+    }
+
+    private void ensureCapacity(int recordLength) {
+        if (end + recordLength <= buffer.capacity()) {
+            return;
+        }
+        long capacity = buffer.capacity();
+        while (capacity < end + recordLength) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Search store is full: " + path);
+        }
+        try {
+            buffer.force();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void markDead(String query, int offset) {
+        buffer.put(offset, DEAD);
+        deadBytes += recordLength(offset);
+        index.remove(query, offset);
+    }
+
+    // Packs the live, unexpired records at the start of the mapping
+    private void maybeCompact() {
+        long used = end - HEADER_SIZE;
+        if (deadBytes < MIN_COMPACTION_BYTES || deadBytes * 2 < used) {
+            return;
+        }
+
+        byte[] live = new byte[(int) (used - deadBytes)];
+        int length = 0;
+        Map<String, Integer> compacted = new HashMap<>();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Integer> record : index.entrySet()) {
+            int offset = record.getValue();
+            if (readEntry(offset).expiresAtMillis() <= now) {
+                continue;
+            }
+            int recordLength = recordLength(offset);
+            buffer.get(offset, live, length, recordLength);
+            compacted.put(record.getKey(), HEADER_SIZE + length);
+            length += recordLength;
+        }
+
+        buffer.putLong(END_OFFSET, HEADER_SIZE);
+        try {
+            buffer.force(); // on disk the store is now empty, not half-moved
+        } catch (UncheckedIOException e) {
+            buffer.putLong(END_OFFSET, end);
+            throw e;
+        }
+        buffer.put(HEADER_SIZE, live, 0, length);
+        end = HEADER_SIZE + length;
+        buffer.putLong(END_OFFSET, end);
+        index.clear();
+        index.putAll(compacted);
+        deadBytes = 0;
+    }
+
+    private int recordLength(int offset) {
+        return 5 + buffer.getInt(offset + 1);
+    }
+
+    private String readKey(int offset) {
+        int keyLength = buffer.getInt(offset + 5);
+        byte[] key = new byte[keyLength];
+        buffer.get(offset + 9, key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private Entry readEntry(int offset) {
+        int position = offset + 5;
+        int keyLength = buffer.getInt(position);
+        position += 4 + keyLength;
+        long expiresAt = buffer.getLong(position);
+        position += 8;
+        int count = buffer.getInt(position);
+        position += 4;
+
+        List<String> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getInt(position);
+            byte[] value = new byte[length];
+            buffer.get(position + 4, value);
+            results.add(new String(value, StandardCharsets.UTF_8));
+            position += 4 + length;
+        }
+        return new Entry(List.copyOf(results), expiresAt);
+    }
+}
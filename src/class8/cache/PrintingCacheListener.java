@@ -0,0 +1,36 @@
+package class8.cache;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ============================================================================
+// PrintingCacheListener: the console output SearchCache used to print inline
+// ============================================================================
+class PrintingCacheListener implements CacheEventListener {
+
+    @Override
+    public void onLoaded(String query, List<String> results, long loadNanos) {
+        System.out.println(String.format("Loaded results for search term %s in %d ms: %s",
+                query, TimeUnit.NANOSECONDS.toMillis(loadNanos), results));
+    }
+
+    @Override
+    public void onUpdated(String query, List<String> results) {
+        System.out.println(String.format("Updated results for search term %s with %s", query, results));
+    }
+
+    @Override
+    public void onEvicted(String query) {
+        System.out.println(" -> Evicting: " + query);
+    }
+
+    @Override
+    public void onExpired(String query) {
+        System.out.println(" -> Removing: " + query);
+    }
+
+    @Override
+    public void onLoadFailed(String query, Throwable error) {
+        System.out.println("Load failed for " + query + ": " + error.getMessage());
+    }
+}
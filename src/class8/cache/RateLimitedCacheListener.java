@@ -0,0 +1,68 @@
+package class8.cache;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// ============================================================================
+// RateLimitedCacheListener: forwards at most maxEventsPerSecond events to the
+// delegate and drops (but counts) the rest
+// ============================================================================
+class RateLimitedCacheListener implements CacheEventListener {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final CacheEventListener delegate;
+    private final long maxEventsPerSecond;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong eventsInWindow = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    public RateLimitedCacheListener(CacheEventListener delegate, long maxEventsPerSecond) {
+        this.delegate = delegate;
+        this.maxEventsPerSecond = maxEventsPerSecond;
+    }
+
+    @Override
+    public void onLoaded(String query, List<String> results, long loadNanos) {
+        if (tryAcquire()) delegate.onLoaded(query, results, loadNanos);
+    }
+
+    @Override
+    public void onUpdated(String query, List<String> results) {
+        if (tryAcquire()) delegate.onUpdated(query, results);
+    }
+
+    @Override
+    public void onEvicted(String query) {
+        if (tryAcquire()) delegate.onEvicted(query);
+    }
+
+    @Override
+    public void onExpired(String query) {
+        if (tryAcquire()) delegate.onExpired(query);
+    }
+
+    @Override
+    public void onLoadFailed(String query, Throwable error) {
+        if (tryAcquire()) delegate.onLoadFailed(query, error);
+    }
+
+    public long getDroppedEvents() {
+        return dropped.sum();
+    }
+
+    private boolean tryAcquire() {
+        long now = CoarseClock.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            eventsInWindow.set(0);
+        }
+        if (eventsInWindow.incrementAndGet() <= maxEventsPerSecond) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+package class8.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// ============================================================================
+// Main: measures cache-hit throughput of the search caches with 1..N reader
+// threads. Every query is loaded before measuring, so only the hit path runs.
+// ============================================================================
+public class ReadThroughputBenchmark {
+
+    private static final int QUERIES = 1_000;
+    private static final long WARMUP_MILLIS = 1_000;
+    private static final long MEASURE_MILLIS = 2_000;
+
+    static double measure(Function<String, List<String>> cache, List<String> queries, int threads, long millis) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> readers = new ArrayList<>();
+        long[] deadline = new long[1];
+
+        for (int t = 0; t < threads; t++) {
+            int offset = t * 31;
+            Thread reader = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long ops = 0;
+                int i = offset;
+                int size = queries.size();
+                while (System.nanoTime() < deadline[0]) {
+                    // check the clock only every 1024 hits to keep it out of the measurement
+                    for (int k = 0; k < 1024; k++) {
+                        cache.apply(queries.get(i++ % size));
+                    }
+                    ops += 1024;
+                }
+                operations.add(ops);
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        deadline[0] = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        start.countDown();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        return operations.sum() / (millis / 1000.0);
+    }
+
+    static void run(String name, Function<String, List<String>> cache, List<String> queries, int maxThreads) throws InterruptedException {
+        queries.forEach(cache::apply);
+        measure(cache, queries, maxThreads, WARMUP_MILLIS);
+
+        System.out.println("--- " + name + " ---");
+        double single = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double opsPerSecond = measure(cache, queries, threads, MEASURE_MILLIS);
+            if (threads == 1) {
+                single = opsPerSecond;
+            }
+            System.out.println(String.format("%3d threads: %,15.0f hits/s  (%.2fx)", threads, opsPerSecond, opsPerSecond / single));
+        }
+    }
+
+    // optional argument: highest reader thread count (defaults to the number of cores)
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+
+        SearchEngine instantEngine = new SearchEngine() {
+            @Override
+            public List<String> search(String query) {
+                return List.of(query + " - result A", query + " - result B", query + " - result C");
+            }
+        };
+
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add("query-" + i);
+        }
+
+        run("unbounded", new SearchCache(instantEngine, 3_600)::search, queries, maxThreads);
+        run("bounded (W-TinyLFU, 10k entries)", new SearchCache(instantEngine, 3_600, 10_000)::search, queries, maxThreads);
+        run("sharded x16, bounded (10k entries)",
+                new ShardedSearchCache(instantEngine, 3_600, 16, 10_000, 0, null)::search, queries, maxThreads);
+    }
+}
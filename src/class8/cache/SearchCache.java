@@ -0,0 +1,428 @@
+package class8.cache;
+
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ============================================================================
+// SearchCache: handles cache lookup, TTL, fallback search, concurrency
+// ============================================================================
+class SearchCache {
+
+    private final ConcurrentHashMap<String, SearchResult> cache = new ConcurrentHashMap<>();
+    private final SearchEngine searchEngine;
+    private final long ttlSeconds;
+    private final ExpiryQueue expiryQueue = new ExpiryQueue();
+
+    // loads currently talking to the search engine; every caller of the same query waits on one future
+    private final ConcurrentHashMap<String, CompletableFuture<List<String>>> inFlight = new ConcurrentHashMap<>();
+
+    // stale-while-revalidate: expired entries are served for this long while a background load runs
+    private final long refreshGraceSeconds;
+
+    // every load (miss or refresh) runs once per key on its own virtual thread
+    private final ExecutorService loader = Executors.newVirtualThreadPerTaskExecutor();
+
+    // optional size bound (null = unbounded, entries only leave through TTL)
+    private final WindowTinyLfuPolicy<String> policy;
+    private final ReentrantLock policyLock = new ReentrantLock();
+
+    // striped counters, cheap to bump from many threads
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder weight = new LongAdder();
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+
+    // printing used to happen inline on the load path; now it is opt-in (see RateLimitedCacheListener)
+    private volatile CacheEventListener listener = CacheEventListener.NONE;
+
+    // optional persistent tier consulted on L1 misses before the search engine (null = none)
+    private final MappedSearchStore secondTier;
+
+    public SearchCache(SearchEngine searchEngine, long ttlSeconds) {
+        this(searchEngine, ttlSeconds, 0);
+    }
+
+    public SearchCache(SearchEngine searchEngine, long ttlSeconds, long maximumSize) {
+        this(searchEngine, ttlSeconds, maximumSize, 0);
+    }
+
+    public SearchCache(SearchEngine searchEngine, long ttlSeconds, long maximumSize, long refreshGraceSeconds) {
+        this(searchEngine, ttlSeconds, maximumSize, refreshGraceSeconds, null);
+    }
+
+    public SearchCache(SearchEngine searchEngine, long ttlSeconds, long maximumSize, long refreshGraceSeconds,
+                       MappedSearchStore secondTier) {
+        this.searchEngine = searchEngine;
+        this.ttlSeconds = ttlSeconds;
+        this.refreshGraceSeconds = refreshGraceSeconds;
+        this.policy = maximumSize > 0 ? new WindowTinyLfuPolicy<>(maximumSize) : null;
+        this.secondTier = secondTier;
+    }
+
+    public List<String> search(String query) {
+        List<String> cached = lookup(query);
+        if (cached != null) {
+            return cached;
+        }
+        misses.increment();
+        return await(loadAsync(query));
+    }
+
+    // Never blocks: hits complete immediately, misses complete when the shared load finishes
+    public CompletableFuture<List<String>> searchAsync(String query) {
+        List<String> cached = lookup(query);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        misses.increment();
+        // a copy, so one caller cancelling or completing it cannot affect the other waiters
+        return loadAsync(query).copy();
+    }
+
+    // Answers hits right away and fetches all misses with a single SearchEngine.searchAll call
+    public Map<String, List<String>> searchAll(Collection<String> queries) {
+        Map<String, List<String>> results = new LinkedHashMap<>();
+        Map<String, CompletableFuture<List<String>>> owned = new HashMap<>();
+        Map<String, CompletableFuture<List<String>>> waiting = new HashMap<>();
+
+        for (String query : queries) {
+            if (results.containsKey(query) || owned.containsKey(query) || waiting.containsKey(query)) {
+                continue;
+            }
+            List<String> cached = lookup(query);
+            if (cached != null) {
+                results.put(query, cached);
+                continue;
+            }
+            misses.increment();
+
+            CompletableFuture<List<String>> mine = new CompletableFuture<>();
+            CompletableFuture<List<String>> other = inFlight.putIfAbsent(query, mine);
+            if (other != null) {
+                waiting.put(query, other); // someone else is already fetching it
+            } else if (!completeFromCache(query, mine)) {
+                owned.put(query, mine);
+            } else {
+                results.put(query, mine.join());
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            loadBatch(owned);
+        }
+
+        Map<String, List<String>> ordered = new LinkedHashMap<>();
+        for (String query : queries) {
+            if (ordered.containsKey(query)) {
+                continue;
+            }
+            List<String> value = results.get(query);
+            if (value == null) {
+                CompletableFuture<List<String>> future = owned.containsKey(query) ? owned.get(query) : waiting.get(query);
+                value = await(future);
+            }
+            ordered.put(query, value);
+        }
+        return ordered;
+    }
+
+    // Fresh hit, or stale-within-grace hit (which schedules a background reload); null means "must load"
+    private List<String> lookup(String query) {
+        SearchResult entry = cache.get(query);
+
+        // Fast path: cached & not expired
+        if (entry != null && !entry.isExpired()) {
+            hits.increment();
+            recordAccess(query);
+            return entry.getResults();
+        }
+
+        // Stale but within grace: answer immediately, reload in the background
+        if (entry != null && refreshGraceSeconds > 0 && !entry.isHardExpired()) {
+            if (entry.tryStartRefresh()) {
+                // shares the in-flight load with any concurrent caller; failures keep the stale entry
+                loadAsync(query).whenComplete((results, error) -> entry.finishRefresh());
+            }
+            hits.increment();
+            recordAccess(query);
+            return entry.getResults();
+        }
+
+        return null;
+    }
+
+    // Single-flight: the first caller for a key starts the load, everyone else gets the same future
+    private CompletableFuture<List<String>> loadAsync(String query) {
+        CompletableFuture<List<String>> mine = new CompletableFuture<>();
+        CompletableFuture<List<String>> other = inFlight.putIfAbsent(query, mine);
+        if (other != null) {
+            return other;
+        }
+        if (completeFromCache(query, mine)) {
+            return mine;
+        }
+        try {
+            loader.execute(() -> load(query, mine));
+        } catch (RejectedExecutionException e) {
+            // stopped: fail this load instead of leaving a future nobody will ever complete
+            // (a stale hit's refresh flag is reset by the whenComplete in lookup)
+            inFlight.remove(query, mine);
+            mine.completeExceptionally(e);
+        }
+        return mine;
+    }
+
+    // Runs on a virtual thread; the slow call holds no map lock
+    private void load(String query, CompletableFuture<List<String>> mine) {
+        try {
+            List<String> stored = loadFromSecondTier(query);
+            if (stored != null) {
+                mine.complete(stored);
+                return;
+            }
+            long start = System.nanoTime();
+            List<String> fresh = searchEngine.search(query);
+            long elapsed = System.nanoTime() - start;
+            loads.increment();
+            loadLatency.record(elapsed);
+            listener.onLoaded(query, fresh, elapsed);
+            storeLoaded(query, fresh);
+            mine.complete(fresh);
+        } catch (Throwable e) {
+            // Errors too: a future that never completes would block every waiter forever
+            mine.completeExceptionally(e);
+            listener.onLoadFailed(query, e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            inFlight.remove(query, mine);
+        }
+    }
+
+    private void loadBatch(Map<String, CompletableFuture<List<String>>> owned) {
+        Map<String, CompletableFuture<List<String>>> toFetch = new HashMap<>();
+        try {
+            owned.forEach((query, future) -> {
+                List<String> stored = loadFromSecondTier(query);
+                if (stored != null) {
+                    future.complete(stored);
+                } else {
+                    toFetch.put(query, future);
+                }
+            });
+            if (toFetch.isEmpty()) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            Map<String, List<String>> fetched = searchEngine.searchAll(toFetch.keySet());
+            long elapsed = System.nanoTime() - start;
+            loads.add(toFetch.size());
+            loadLatency.record(elapsed);
+            toFetch.forEach((query, future) -> {
+                List<String> fresh = fetched.get(query);
+                if (fresh == null) {
+                    IllegalStateException missing = new IllegalStateException("No results returned for " + query);
+                    listener.onLoadFailed(query, missing);
+                    future.completeExceptionally(missing);
+                } else {
+                    listener.onLoaded(query, fresh, elapsed);
+                    storeLoaded(query, fresh);
+                    future.complete(fresh);
+                }
+            });
+        } catch (Throwable e) {
+            owned.values().forEach(future -> future.completeExceptionally(e));
+            toFetch.keySet().forEach(query -> listener.onLoadFailed(query, e));
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            owned.forEach(inFlight::remove);
+        }
+    }
+
+    // A load that finished just before we claimed the key has already stored a fresh entry
+    private boolean completeFromCache(String query, CompletableFuture<List<String>> mine) {
+        SearchResult entry = cache.get(query);
+        if (entry != null && !entry.isExpired()) {
+            mine.complete(entry.getResults());
+            inFlight.remove(query, mine);
+            return true;
+        }
+        return false;
+    }
+
+    // L2 hit: promote into L1 with whatever TTL the stored copy has left; an unreadable L2 counts as a miss
+    private List<String> loadFromSecondTier(String query) {
+        if (secondTier == null) {
+            return null;
+        }
+        MappedSearchStore.Entry stored;
+        try {
+            stored = secondTier.get(query);
+        } catch (UncheckedIOException e) {
+            listener.onLoadFailed(query, e);
+            return null;
+        }
+        if (stored == null) {
+            return null;
+        }
+        long remainingSeconds = Math.max(1, (stored.expiresAtMillis() - System.currentTimeMillis()) / 1000);
+        store(query, stored.results(), remainingSeconds);
+        return stored.results();
+    }
+
+    // Fresh engine results go to L1 and are written through to L2
+    private void storeLoaded(String query, List<String> fresh) {
+        store(query, fresh, ttlSeconds);
+        if (secondTier != null) {
+            try {
+                secondTier.put(query, fresh, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds));
+            } catch (UncheckedIOException e) {
+                listener.onLoadFailed(query, e);
+            }
+        }
+    }
+
+    private void store(String query, List<String> fresh, long entryTtlSeconds) {
+        boolean[] inserted = new boolean[1];
+
+        cache.compute(query, (q, existing) -> {
+            if (existing == null) {
+                inserted[0] = true;
+                SearchResult created = new SearchResult(fresh, entryTtlSeconds, refreshGraceSeconds);
+                weight.add(weightOf(q, created));
+                expiryQueue.schedule(q, created);
+                return created;
+            } else {
+                long before = existing.weight();
+                existing.update(fresh, entryTtlSeconds);
+                weight.add(existing.weight() - before);
+                expiryQueue.schedule(q, existing);
+                listener.onUpdated(q, fresh);
+                return existing;
+            }
+        });
+
+        if (inserted[0]) {
+            recordInsert(query);
+        }
+    }
+
+    private static List<String> await(CompletableFuture<List<String>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Removes entries whose deadline has passed; cost depends on how many are due, not on cache size
+    public int expireEntries() {
+        int removed = 0;
+        for (ExpiryQueue.Deadline deadline : expiryQueue.pollExpired()) {
+            SearchResult entry = cache.get(deadline.getQuery());
+            // evicted, or refreshed with a later deadline queued: this one is outdated
+            if (entry != null && entry.isHardExpired() && remove(deadline.getQuery(), entry)) {
+                listener.onExpired(deadline.getQuery());
+                removed++;
+            }
+        }
+        expirations.add(removed);
+        return removed;
+    }
+
+    // Removes an entry only if it is still mapped to the given result (used by the cleaner)
+    public boolean remove(String query, SearchResult expected) {
+        if (!cache.remove(query, expected)) {
+            return false;
+        }
+        weight.add(-weightOf(query, expected));
+        if (policy != null) {
+            policyLock.lock();
+            try {
+                policy.recordRemoval(query);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return true;
+    }
+
+    // Hits are recorded best-effort: under contention we skip rather than block the read path
+    // (isLocked() is a plain read, so busy readers do not all hammer the lock word with CAS)
+    private void recordAccess(String query) {
+        if (policy != null && !policyLock.isLocked() && policyLock.tryLock()) {
+            try {
+                policy.recordAccess(query);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    // Evictions run outside compute(), removing another key from inside it is not allowed.
+    // Victims are removed only if still mapped to the entry they had when they were chosen, so a
+    // concurrent re-insert of the same key is not dropped
+    private void recordInsert(String query) {
+        if (policy == null) {
+            return;
+        }
+
+        Map<String, SearchResult> victims = new HashMap<>();
+        policyLock.lock();
+        try {
+            for (String key : policy.recordInsert(query)) {
+                SearchResult victim = cache.get(key);
+                if (victim != null) {
+                    victims.put(key, victim);
+                }
+            }
+        } finally {
+            policyLock.unlock();
+        }
+
+        for (Map.Entry<String, SearchResult> victim : victims.entrySet()) {
+            String key = victim.getKey();
+            SearchResult removed = victim.getValue();
+            if (cache.remove(key, removed)) {
+                weight.add(-weightOf(key, removed));
+                evictions.increment();
+                listener.onEvicted(key);
+            }
+        }
+    }
+
+    private static long weightOf(String query, SearchResult entry) {
+        return 40 + query.length() + entry.weight();
+    }
+
+    public void setEventListener(CacheEventListener listener) {
+        this.listener = listener != null ? listener : CacheEventListener.NONE;
+    }
+
+    // Shuts the loader down: loads already running finish, new misses are rejected
+    public void stop() {
+        loader.shutdown();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), loads.sum(), evictions.sum(), expirations.sum(),
+                cache.size(), weight.sum(), loadLatency.snapshot());
+    }
+
+    public ConcurrentHashMap<String, SearchResult> getCacheMap() {
+        return cache;
+    }
+}
@@ -0,0 +1,243 @@
+package class8.cache;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// ============================================================================
+// StubSearchEngine: search engine with a configurable latency and no sleeps.
+// The latency is spun rather than slept so short delays are exact; it runs
+// on the SearchCache loader thread that performs the load.
+// ============================================================================
+class StubSearchEngine extends SearchEngine {
+    private final long latencyNanos;
+
+    public StubSearchEngine(long latencyMicros) {
+        this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+    }
+
+    @Override
+    public List<String> search(String query) {
+        spin();
+        return List.of(query + " - result A", query + " - result B", query + " - result C");
+    }
+
+    @Override
+    public Map<String, List<String>> searchAll(Collection<String> queries) {
+        spin();
+        Map<String, List<String>> results = new HashMap<>();
+        for (String query : queries) {
+            results.put(query, List.of(query + " - result A", query + " - result B", query + " - result C"));
+        }
+        return results;
+    }
+
+    private void spin() {
+        long end = System.nanoTime() + latencyNanos;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+}
+
+// ============================================================================
+// Main: repeatable SearchCache benchmark
+//
+//   workloads     : get-hit, get-miss, mixed (95% hits / 5% misses)
+//   distributions : uniform, zipf, scan (sequential sweep over the key space)
+//   reports       : throughput, p99 latency, allocation rate and bytes per op
+//
+// Allocation is counted across all threads, because misses are loaded on the
+// cache's virtual threads rather than on the benchmark workers.
+//
+// Every benchmark runs warmup iterations first and reports the mean of the
+// measurement iterations. Options are key=value arguments, for example:
+//   ttl=60 latencyMicros=50 threads=4 keys=10000 warmups=2 iterations=3 seconds=2
+// ============================================================================
+public class SearchCacheBenchmark {
+
+    enum Workload { GET_HIT, GET_MISS, MIXED }
+
+    enum Distribution { UNIFORM, ZIPF, SCAN }
+
+    record Result(double opsPerSecond, double p99Micros, double allocMBPerSecond, double bytesPerOp) {
+    }
+
+    private static final int TRACE_LENGTH = 1 << 16;
+    private static final int MAX_SAMPLES_PER_THREAD = 1 << 20;
+
+    private final long ttlSeconds;
+    private final long latencyMicros;
+    private final int threads;
+    private final int keyCount;
+    private final int warmups;
+    private final int iterations;
+    private final long iterationMillis;
+    private final String[] keys;
+
+    public SearchCacheBenchmark(Map<String, String> options) {
+        this.ttlSeconds = Long.parseLong(options.getOrDefault("ttl", "60"));
+        this.latencyMicros = Long.parseLong(options.getOrDefault("latencyMicros", "50"));
+        this.threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        this.keyCount = Integer.parseInt(options.getOrDefault("keys", "10000"));
+        this.warmups = Integer.parseInt(options.getOrDefault("warmups", "2"));
+        this.iterations = Integer.parseInt(options.getOrDefault("iterations", "3"));
+        this.iterationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("seconds", "2")));
+
+        this.keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "query-" + i;
+        }
+    }
+
+    // Precomputed key indexes, so generating the next query costs one array read
+    private int[] trace(Distribution distribution, long seed) {
+        int[] trace = new int[TRACE_LENGTH];
+        Random random = new Random(seed);
+        ZipfGenerator zipf = distribution == Distribution.ZIPF ? new ZipfGenerator(keyCount, 0.99, seed) : null;
+        int start = random.nextInt(keyCount);
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            trace[i] = switch (distribution) {
+                case UNIFORM -> random.nextInt(keyCount);
+                case ZIPF -> zipf.next();
+                case SCAN -> (start + i) % keyCount;
+            };
+        }
+        return trace;
+    }
+
+    private SearchCache newCache(Workload workload) {
+        SearchCache cache = new SearchCache(new StubSearchEngine(latencyMicros), ttlSeconds, keyCount);
+        if (workload != Workload.GET_MISS) {
+            for (String key : keys) {
+                cache.search(key);
+            }
+        }
+        return cache;
+    }
+
+    private Result iteration(SearchCache cache, Workload workload, Distribution distribution, int round)
+            throws InterruptedException {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        CountDownLatch start = new CountDownLatch(1);
+        long[] operations = new long[threads];
+        long[][] samples = new long[threads][];
+        int[] sampleCounts = new int[threads];
+        long[] deadline = new long[1];
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            int[] trace = trace(distribution, 31L * round + id);
+            long[] latencies = new long[MAX_SAMPLES_PER_THREAD]; // allocated here, outside the measured window
+            Thread worker = new Thread(() -> {
+                int recorded = 0;
+                long ops = 0;
+                long misses = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                while (System.nanoTime() < deadline[0]) {
+                    String query;
+                    if (workload == Workload.GET_MISS || (workload == Workload.MIXED && ops % 20 == 19)) {
+                        query = "miss-" + id + "-" + round + "-" + misses++;
+                    } else {
+                        query = keys[trace[(int) (ops & (TRACE_LENGTH - 1))]];
+                    }
+
+                    long begin = System.nanoTime();
+                    cache.search(query);
+                    long elapsed = System.nanoTime() - begin;
+
+                    if (recorded < latencies.length) {
+                        latencies[recorded++] = elapsed;
+                    }
+                    ops++;
+                }
+
+                operations[id] = ops;
+                samples[id] = latencies;
+                sampleCounts[id] = recorded;
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        long allocatedBefore = threadBean.getTotalThreadAllocatedBytes();
+        long begin = System.nanoTime();
+        deadline[0] = begin + TimeUnit.MILLISECONDS.toNanos(iterationMillis);
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        long totalBytes = threadBean.getTotalThreadAllocatedBytes() - allocatedBefore;
+
+        long totalOps = Arrays.stream(operations).sum();
+
+        int totalSamples = Arrays.stream(sampleCounts).sum();
+        long[] merged = new long[totalSamples];
+        int position = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(samples[t], 0, merged, position, sampleCounts[t]);
+            position += sampleCounts[t];
+        }
+        Arrays.sort(merged);
+        double p99 = merged.length == 0 ? 0 : merged[(int) Math.min(merged.length - 1, Math.ceil(merged.length * 0.99) - 1)] / 1e3;
+
+        return new Result(totalOps / seconds, p99, totalBytes / seconds / (1024 * 1024),
+                totalOps == 0 ? 0 : (double) totalBytes / totalOps);
+    }
+
+    public Result run(Workload workload, Distribution distribution) throws InterruptedException {
+        SearchCache cache = newCache(workload);
+        for (int i = 0; i < warmups; i++) {
+            iteration(cache, workload, distribution, i);
+        }
+
+        double ops = 0, p99 = 0, alloc = 0, bytesPerOp = 0;
+        for (int i = 0; i < iterations; i++) {
+            Result result = iteration(cache, workload, distribution, warmups + i);
+            ops += result.opsPerSecond();
+            p99 += result.p99Micros();
+            alloc += result.allocMBPerSecond();
+            bytesPerOp += result.bytesPerOp();
+        }
+        return new Result(ops / iterations, p99 / iterations, alloc / iterations, bytesPerOp / iterations);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length == 2) {
+                options.put(parts[0], parts[1]);
+            }
+        }
+
+        SearchCacheBenchmark benchmark = new SearchCacheBenchmark(options);
+        System.out.println(String.format("=== SearchCache benchmark: ttl=%ds latency=%dus threads=%d keys=%d ===",
+                benchmark.ttlSeconds, benchmark.latencyMicros, benchmark.threads, benchmark.keyCount));
+        System.out.println(String.format("%-9s %-8s | %15s | %10s | %10s | %10s",
+                "workload", "dist", "ops/s", "p99 (us)", "alloc MB/s", "B/op"));
+
+        for (Workload workload : Workload.values()) {
+            for (Distribution distribution : Distribution.values()) {
+                Result result = benchmark.run(workload, distribution);
+                System.out.println(String.format("%-9s %-8s | %,15.0f | %10.2f | %10.1f | %10.1f",
+                        workload.name().toLowerCase(), distribution.name().toLowerCase(),
+                        result.opsPerSecond(), result.p99Micros(), result.allocMBPerSecond(), result.bytesPerOp()));
+                if (workload == Workload.GET_MISS) {
+                    break; // every key is new, the distribution does not matter
+                }
+            }
+        }
+    }
+}
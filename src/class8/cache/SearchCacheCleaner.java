@@ -0,0 +1,26 @@
+package class8.cache;
+
+import java.util.concurrent.*;
+
+// ============================================================================
+// SearchCacheCleaner: scheduled cleanup of expired entries
+// ============================================================================
+class SearchCacheCleaner {
+
+    private final SearchCache cache;
+    private final ScheduledExecutorService scheduler =
+            Executors.newScheduledThreadPool(1);
+
+    public SearchCacheCleaner(SearchCache cache) {
+        this.cache = cache;
+    }
+
+    public void startCleanupTask() {
+        // each tick only touches the entries whose deadline has passed
+        scheduler.scheduleAtFixedRate(cache::expireEntries, 3, 3, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdown();
+    }
+}
@@ -1,165 +1,32 @@
 package class8.cache;
 
-import java.time.Instant;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
-
-// ============================================================================
-// SearchResult: stores results + TTL + locking
-// ============================================================================
-class SearchResult {
-    private List<String> results;
-    private Instant expiresAt;
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-
-    public SearchResult(List<String> results, long ttlSeconds) {
-        this.results = results;
-        this.expiresAt = Instant.now().plusSeconds(ttlSeconds);
-    }
-
-    public boolean isExpired() {
-        return Instant.now().isAfter(expiresAt);
-    }
-
-    public void update(List<String> newResults, long ttlSeconds) {
-        lock.writeLock().lock();
-        try {
-            this.results = newResults;
-            this.expiresAt = Instant.now().plusSeconds(ttlSeconds);
-            System.out.println(String.format("Updated results: %s with expiry at %d", this.results, this.expiresAt.toEpochMilli()));
-        } finally {
-            lock.writeLock().unlock();
-        }
-    }
-
-    public List<String> getResults() {
-        lock.readLock().lock();
-        try {
-            return List.copyOf(results);
-        } finally {
-            lock.readLock().unlock();
-        }
-    }
-
-    public ReadWriteLock getLock() {
-        return lock;
-    }
-}
-
-// ============================================================================
-// SearchEngine: simulates slow search API
-// ============================================================================
-class SearchEngine {
-
-    public List<String> search(String query) {
-        try { Thread.sleep(400); } catch (InterruptedException ignored) {}
-
-        return List.of(
-                query + " - result A",
-                query + " - result B",
-                query + " - result C " + new Random().nextInt(100)
-        );
-    }
-}
-
-// ============================================================================
-// SearchCache: handles cache lookup, TTL, fallback search, concurrency
-// ============================================================================
-class SearchCache {
-
-    private final ConcurrentHashMap<String, SearchResult> cache = new ConcurrentHashMap<>();
-    private final SearchEngine searchEngine;
-    private final long ttlSeconds;
-
-    public SearchCache(SearchEngine searchEngine, long ttlSeconds) {
-        this.searchEngine = searchEngine;
-        this.ttlSeconds = ttlSeconds;
-    }
-
-    public List<String> search(String query) {
-        SearchResult entry = cache.get(query);
-
-        // Fast path: cached & not expired
-        if (entry != null && !entry.isExpired()) {
-            return entry.getResults();
-        }
-
-        // compute() prevents race conditions and ensures only one fetch
-        return cache.compute(query, (q, existing) -> {
-
-            if (existing != null && !existing.isExpired()) {
-                return existing;
-            }
-
-            List<String> fresh = searchEngine.search(query);
-
-            if (existing == null) {
-                return new SearchResult(fresh, ttlSeconds);
-            } else {
-                System.out.println(String.format("Starting to update results for search term %s with %s", q, fresh));
-                existing.update(fresh, ttlSeconds);
-                return existing;
-            }
-
-        }).getResults();
-    }
-
-    public ConcurrentHashMap<String, SearchResult> getCacheMap() {
-        return cache;
-    }
-}
-
-// ============================================================================
-// SearchCacheCleaner: scheduled cleanup of expired entries
-// ============================================================================
-class SearchCacheCleaner {
-
-    private final SearchCache cache;
-    private final ScheduledExecutorService scheduler =
-            Executors.newScheduledThreadPool(1);
-
-    public SearchCacheCleaner(SearchCache cache) {
-        this.cache = cache;
-    }
-
-    public void startCleanupTask() {
-        scheduler.scheduleAtFixedRate(() -> {
-            System.out.println("[Cleanup] Checking expired entries...");
-
-            for (Map.Entry<String, SearchResult> entry : cache.getCacheMap().entrySet()) {
-                SearchResult sr = entry.getValue();
-
-                sr.getLock().readLock().lock();
-                try {
-                    if (sr.isExpired()) {
-                        System.out.println(" -> Removing: " + entry.getKey());
-                        cache.getCacheMap().remove(entry.getKey());
-                    }
-                } finally {
-                    sr.getLock().readLock().unlock();
-                }
-            }
-
-        }, 3, 3, TimeUnit.SECONDS);
-    }
-
-    public void stop() {
-        scheduler.shutdown();
-    }
-}
 
 // ============================================================================
 // Main: handles user input & demonstrates caching behavior
 // ============================================================================
 public class SearchCacheDemo {
 
-    public static void main(String[] args) throws InterruptedException {
+    public static void main(String[] args) throws InterruptedException, IOException {
         SearchEngine engine = new SearchEngine();
-        SearchCache cache = new SearchCache(engine, 5); // TTL = 10 seconds
+
+        // Second tier: a cache that is started again reads what the previous one loaded from the
+        // mapped file instead of asking the engine (simulated restart: new store, new cache, same file)
+        Path storePath = Paths.get(System.getProperty("java.io.tmpdir"), "search-cache-l2.bin");
+        try (MappedSearchStore store = new MappedSearchStore(storePath)) {
+            SearchCache beforeRestart = new SearchCache(engine, 5, 1_000, 10, store);
+            timeSearch("Before restart", beforeRestart, "restart-check");
+            beforeRestart.stop();
+        }
+        MappedSearchStore secondTier = new MappedSearchStore(storePath);
+
+        SearchCache cache = new SearchCache(engine, 5, 1_000, 10, secondTier); // TTL = 5 seconds, at most 1000 entries, 10s stale grace
+        timeSearch("After restart", cache, "restart-check");
+        cache.setEventListener(new RateLimitedCacheListener(new PrintingCacheListener(), 20));
         SearchCacheCleaner cleaner = new SearchCacheCleaner(cache);
         cleaner.startCleanupTask();
 
@@ -192,36 +59,44 @@ public class SearchCacheDemo {
 //                "java", "concurrency", "executor", "cache", "ttl"
         );
 
-        ExecutorService executor = Executors.newFixedThreadPool(5);
-        Random random = new Random();
+        try {
+            Random random = new Random();
+            List<CompletableFuture<?>> pending = new ArrayList<>();
 
-        for (int i = 0; i < 10000; i++) {
-            String query = i%1000!=0 ? queries.get(random.nextInt(queries.size())) : "Gordana";
-            if (i%10==0) {
-                Thread.sleep(random.nextInt(2000, 4000));
-            }
-            executor.submit(() -> {
-                try {
-                    long start = System.currentTimeMillis();
-                    List<String> results = cache.search(query);
+            for (int i = 0; i < 10000; i++) {
+                String query = i%1000!=0 ? queries.get(random.nextInt(queries.size())) : "Gordana";
+                if (i%10==0) {
+                    Thread.sleep(random.nextInt(2000, 4000));
+                }
+                // misses are loaded on virtual threads, so no fixed pool caps how many can wait at once
+                long start = System.currentTimeMillis();
+                pending.add(cache.searchAsync(query).whenComplete((results, error) -> {
+                    if (error != null) {
+                        System.out.println(error.getMessage());
+                        return;
+                    }
                     long end = System.currentTimeMillis();
-
-                    System.out.println(Thread.currentThread().getName()
-                            + " | Query: " + query
+                    System.out.println("Query: " + query
                             + " | Results: " + results
                             + " | Time: " + (end - start) + " ms");
-                } catch (Exception e) {
-                    System.out.println(e.getMessage());
-                }
-            });
-        }
+                }));
+            }
 
-        executor.shutdown();
-//        executor.awaitTermination(1, TimeUnit.MINUTES);
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).join();
 
-        System.out.println("\n=== All threads finished ===");
-        System.out.println("Final cache size: " + cache.getCacheMap().size());
+            System.out.println("\n=== All threads finished ===");
+            System.out.println("Final cache size: " + cache.getCacheMap().size());
+            System.out.println("Stats: " + cache.stats());
+        } finally {
+            cleaner.stop();
+            cache.stop();
+            secondTier.close();
+        }
+    }
 
-        cleaner.stop();
+    private static void timeSearch(String label, SearchCache cache, String query) {
+        long start = System.currentTimeMillis();
+        cache.search(query);
+        System.out.println(label + ": '" + query + "' answered in " + (System.currentTimeMillis() - start) + " ms");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package class8.cache;
+
+import java.util.*;
+
+// ============================================================================
+// SearchEngine: simulates slow search API
+// ============================================================================
+class SearchEngine {
+
+    public List<String> search(String query) {
+        try { Thread.sleep(400); } catch (InterruptedException ignored) {}
+
+        return resultsFor(query);
+    }
+
+    // One round trip for the whole batch instead of one per query
+    public Map<String, List<String>> searchAll(Collection<String> queries) {
+        try { Thread.sleep(400); } catch (InterruptedException ignored) {}
+
+        Map<String, List<String>> results = new HashMap<>();
+        for (String query : queries) {
+            results.put(query, resultsFor(query));
+        }
+        return results;
+    }
+
+    private List<String> resultsFor(String query) {
+        return List.of(
+                query + " - result A",
+                query + " - result B",
+                query + " - result C " + new Random().nextInt(100)
+        );
+    }
+}
@@ -0,0 +1,80 @@
+package class8.cache;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// ============================================================================
+// SearchResult: stores results + TTL
+//
+// Results and deadlines are published together as one immutable snapshot
+// through a volatile field, so a cache hit takes no lock and copies nothing.
+// After expiresAt the entry is stale but may still be served for graceSeconds
+// while a refresh runs; after hardExpiresAt it must not be served at all.
+// ============================================================================
+class SearchResult {
+
+    private record Snapshot(List<String> results, long expiresAt, long hardExpiresAt, long weight) {
+    }
+
+    private volatile Snapshot snapshot;
+    private final long graceNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    public SearchResult(List<String> results, long ttlSeconds) {
+        this(results, ttlSeconds, 0);
+    }
+
+    public SearchResult(List<String> results, long ttlSeconds, long graceSeconds) {
+        this.graceNanos = TimeUnit.SECONDS.toNanos(graceSeconds);
+        this.snapshot = newSnapshot(results, ttlSeconds);
+    }
+
+    private Snapshot newSnapshot(List<String> results, long ttlSeconds) {
+        long expiresAt = CoarseClock.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds);
+        // copied once per write so every read can hand out the same immutable list
+        return new Snapshot(List.copyOf(results), expiresAt, expiresAt + graceNanos, estimateWeight(results));
+    }
+
+    // Rough heap footprint in bytes: list + one String object and its chars per result
+    private static long estimateWeight(List<String> results) {
+        long weight = 32;
+        for (String result : results) {
+            weight += 40 + result.length();
+        }
+        return weight;
+    }
+
+    public boolean isExpired() {
+        return CoarseClock.nanoTime() - snapshot.expiresAt() >= 0;
+    }
+
+    public boolean isHardExpired() {
+        return CoarseClock.nanoTime() - snapshot.hardExpiresAt() >= 0;
+    }
+
+    // Only the caller that flips the flag schedules the background reload
+    public boolean tryStartRefresh() {
+        return refreshing.compareAndSet(false, true);
+    }
+
+    public void finishRefresh() {
+        refreshing.set(false);
+    }
+
+    public long getHardExpiresAt() {
+        return snapshot.hardExpiresAt();
+    }
+
+    public long weight() {
+        return snapshot.weight();
+    }
+
+    public void update(List<String> newResults, long ttlSeconds) {
+        this.snapshot = newSnapshot(newResults, ttlSeconds);
+    }
+
+    public List<String> getResults() {
+        return snapshot.results();
+    }
+}
@@ -0,0 +1,131 @@
+package class8.cache;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+// ============================================================================
+// ShardedSearchCache: partitions queries by hash into independent SearchCache
+// segments. Each segment has its own map, expiry queue, size bound, in-flight
+// loads, counters and cleaner thread, so expiry and eviction work is spread
+// across cores instead of funnelling through one structure.
+// ============================================================================
+class ShardedSearchCache {
+
+    private final SearchCache[] shards;
+    private final int shift;
+    private final List<SearchCacheCleaner> cleaners = new ArrayList<>();
+
+    public ShardedSearchCache(SearchEngine searchEngine, long ttlSeconds, int shardCount) {
+        this(searchEngine, ttlSeconds, shardCount, 0, 0, null);
+    }
+
+    // maximumSize is the total bound, split evenly across the shards; secondTier (optional) is shared
+    public ShardedSearchCache(SearchEngine searchEngine, long ttlSeconds, int shardCount,
+                              long maximumSize, long refreshGraceSeconds, MappedSearchStore secondTier) {
+        if (shardCount <= 0)
+            throw new IllegalArgumentException("shardCount must be > 0");
+
+        int count = 1;
+        while (count < shardCount) {
+            count <<= 1; // power of two, so the shard index is the top log2(count) bits
+        }
+        long perShardSize = maximumSize > 0 ? Math.max(1, (maximumSize + count - 1) / count) : 0;
+
+        this.shards = new SearchCache[count];
+        this.shift = 32 - Integer.numberOfTrailingZeros(count);
+        for (int i = 0; i < count; i++) {
+            shards[i] = new SearchCache(searchEngine, ttlSeconds, perShardSize, refreshGraceSeconds, secondTier);
+        }
+    }
+
+    public List<String> search(String query) {
+        return shardFor(query).search(query);
+    }
+
+    // Misses of every shard are fetched concurrently, one batched engine call per shard involved
+    public Map<String, List<String>> searchAll(Collection<String> queries) {
+        Map<SearchCache, List<String>> byShard = new LinkedHashMap<>();
+        for (String query : queries) {
+            byShard.computeIfAbsent(shardFor(query), s -> new ArrayList<>()).add(query);
+        }
+
+        Map<String, List<String>> partial = new HashMap<>();
+        if (byShard.size() == 1) {
+            Map.Entry<SearchCache, List<String>> only = byShard.entrySet().iterator().next();
+            partial.putAll(only.getKey().searchAll(only.getValue()));
+        } else {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<Map<String, List<String>>>> futures = new ArrayList<>();
+                byShard.forEach((shard, shardQueries) -> futures.add(executor.submit(() -> shard.searchAll(shardQueries))));
+                for (Future<Map<String, List<String>>> future : futures) {
+                    partial.putAll(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading " + queries, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        Map<String, List<String>> ordered = new LinkedHashMap<>();
+        for (String query : queries) {
+            ordered.putIfAbsent(query, partial.get(query));
+        }
+        return ordered;
+    }
+
+    // One cleaner (and scheduler thread) per shard
+    public void startCleanupTasks() {
+        for (SearchCache shard : shards) {
+            SearchCacheCleaner cleaner = new SearchCacheCleaner(shard);
+            cleaner.startCleanupTask();
+            cleaners.add(cleaner);
+        }
+    }
+
+    public void stop() {
+        cleaners.forEach(SearchCacheCleaner::stop);
+        cleaners.clear();
+        for (SearchCache shard : shards) {
+            shard.stop();
+        }
+    }
+
+    public void setEventListener(CacheEventListener listener) {
+        for (SearchCache shard : shards) {
+            shard.setEventListener(listener);
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    public List<CacheStats> shardStats() {
+        List<CacheStats> stats = new ArrayList<>(shards.length);
+        for (SearchCache shard : shards) {
+            stats.add(shard.stats());
+        }
+        return stats;
+    }
+
+    public CacheStats stats() {
+        return shardStats().stream().reduce(CacheStats.EMPTY, CacheStats::plus);
+    }
+
+    public long size() {
+        return stats().size();
+    }
+
+    private SearchCache shardFor(String query) {
+        // Fibonacci hashing, taking the high bits: each shard's ConcurrentHashMap indexes its
+        // bins with the low bits of (h ^ h >>> 16), so picking the shard from those would
+        // leave every shard using only 1/shardCount of its bins
+        int h = query.hashCode() * 0x9E3779B9;
+        return shards[(int) (Integer.toUnsignedLong(h) >>> shift)];
+    }
+}
@@ -0,0 +1,118 @@
+package class8.cache;
+
+import java.util.*;
+
+// ============================================================================
+// WindowTinyLfuPolicy: size bound with frequency-aware admission (W-TinyLFU)
+//
+//  - new keys enter a small LRU "window" (1% of capacity)
+//  - keys leaving the window compete with the main region's LRU victim;
+//    the one the sketch has seen more often stays, the other is evicted
+//  - the main region is a segmented LRU: probation (20%) and protected (80%)
+//
+// Not thread-safe: the owner (SearchCache) guards every call with a lock.
+// ============================================================================
+class WindowTinyLfuPolicy<K> {
+
+    private final long maximumSize;
+    private final long windowCapacity;
+    private final long protectedCapacity;
+
+    // access-ordered LinkedHashMaps used as LRU lists (eldest = LRU end)
+    private final LinkedHashMap<K, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Boolean> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Boolean> protectedRegion = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final FrequencySketch sketch;
+
+    public WindowTinyLfuPolicy(long maximumSize) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("maximumSize must be > 0");
+        this.maximumSize = maximumSize;
+        this.windowCapacity = Math.max(1, maximumSize / 100);
+        this.protectedCapacity = (long) ((maximumSize - windowCapacity) * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    public boolean contains(K key) {
+        return window.containsKey(key) || probation.containsKey(key) || protectedRegion.containsKey(key);
+    }
+
+    public long size() {
+        return window.size() + probation.size() + protectedRegion.size();
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    // Records a hit on a key that is already present
+    public void recordAccess(K key) {
+        sketch.increment(key);
+
+        if (window.get(key) != null || protectedRegion.get(key) != null) {
+            return; // get() on an access-ordered map moves the key to the MRU end
+        }
+
+        if (probation.remove(key) != null) {
+            protectedRegion.put(key, Boolean.TRUE);
+            if (protectedRegion.size() > protectedCapacity) {
+                K demoted = eldest(protectedRegion);
+                protectedRegion.remove(demoted);
+                probation.put(demoted, Boolean.TRUE);
+            }
+        }
+    }
+
+    // Adds a new key and returns the keys that must leave the cache (possibly the new key itself)
+    public List<K> recordInsert(K key) {
+        if (contains(key)) {
+            recordAccess(key);
+            return List.of();
+        }
+
+        sketch.increment(key);
+        window.put(key, Boolean.TRUE);
+
+        List<K> evicted = new ArrayList<>(1);
+        while (window.size() > windowCapacity) {
+            K candidate = eldest(window);
+            window.remove(candidate);
+            admit(candidate, evicted);
+        }
+        return evicted;
+    }
+
+    public void recordRemoval(K key) {
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedRegion.remove(key);
+        }
+    }
+
+    // TinyLFU admission: the window candidate only replaces the main victim if it is more popular
+    private void admit(K candidate, List<K> evicted) {
+        if (probation.size() + protectedRegion.size() < maximumSize - windowCapacity) {
+            probation.put(candidate, Boolean.TRUE);
+            return;
+        }
+
+        LinkedHashMap<K, Boolean> victimRegion = probation.isEmpty() ? protectedRegion : probation;
+        if (victimRegion.isEmpty()) {
+            evicted.add(candidate); // main region has no room at all (tiny maximumSize)
+            return;
+        }
+        K victim = eldest(victimRegion);
+
+        if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+            victimRegion.remove(victim);
+            probation.put(candidate, Boolean.TRUE);
+            evicted.add(victim);
+        } else {
+            evicted.add(candidate);
+        }
+    }
+
+    private static <K> K eldest(LinkedHashMap<K, Boolean> region) {
+        return region.keySet().iterator().next();
+    }
+}
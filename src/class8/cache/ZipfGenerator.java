@@ -0,0 +1,31 @@
+package class8.cache;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// ============================================================================
+// ZipfGenerator: draws ranks 0..n-1 where rank k has probability ~ 1/(k+1)^s
+// ============================================================================
+class ZipfGenerator {
+    private final double[] cdf;
+    private final Random random;
+
+    public ZipfGenerator(int n, double exponent, long seed) {
+        this.cdf = new double[n];
+        this.random = new Random(seed);
+
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    public int next() {
+        int idx = Arrays.binarySearch(cdf, random.nextDouble());
+        return idx >= 0 ? idx : Math.min(-idx - 1, cdf.length - 1);
+    }
+}
@@ -0,0 +1,90 @@
+package class8.log_processor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// ============================================================================
+// CompressedLogBenchmark: plain vs gzip-compressed ingestion of the same log
+//
+// Builds one large log by repeating the sample logs (args[0] = size in MB,
+// default 64), writes it plain and gzipped, then times:
+//   - plain, memory-mapped (MappedErrorScanner)
+//   - gzip, pipelined decompressor + workers (CompressedLogReader)
+//   - gzip, single thread Files.lines-style baseline
+// ============================================================================
+public class CompressedLogBenchmark {
+
+    private static final byte[] KEYWORD = "ERROR".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws IOException {
+        long targetBytes = (args.length > 0 ? Long.parseLong(args[0]) : 64) * 1024 * 1024;
+        Path logsDir = Paths.get("src/class8/logs");
+
+        List<byte[]> samples = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(logsDir, "*.log")) {
+            for (Path p : ds) {
+                samples.add(Files.readAllBytes(p));
+            }
+        }
+        if (samples.isEmpty()) {
+            System.out.println("No sample logs in " + logsDir);
+            return;
+        }
+
+        Path dir = Files.createTempDirectory("compressed-log-benchmark");
+        Path plain = dir.resolve("big.log");
+        Path gzip = dir.resolve("big.log.gz");
+        try {
+            long written = 0;
+            try (OutputStream out = Files.newOutputStream(plain);
+                 OutputStream gz = new GZIPOutputStream(Files.newOutputStream(gzip), 1 << 16)) {
+                for (int i = 0; written < targetBytes; i++) {
+                    byte[] sample = samples.get(i % samples.size());
+                    out.write(sample);
+                    gz.write(sample);
+                    written += sample.length;
+                }
+            }
+            System.out.println(String.format("Log: %,d bytes plain, %,d bytes gzipped",
+                    Files.size(plain), Files.size(gzip)));
+
+            for (int round = 0; round < 2; round++) {
+                System.out.println(round == 0 ? "--- warmup ---" : "--- measured ---");
+                long start = System.currentTimeMillis();
+                long mapped = new MappedErrorScanner().countErrors(List.of(plain));
+                report("Plain, mapped", mapped, start, written);
+
+                start = System.currentTimeMillis();
+                long pipelined = new CompressedLogReader().countMatchingLines(gzip, KEYWORD);
+                report("Gzip, pipelined", pipelined, start, written);
+
+                start = System.currentTimeMillis();
+                long single;
+                try (Stream<String> lines = CompressedLogReader.lines(gzip)) {
+                    single = lines.filter(line -> line.contains("ERROR")).count();
+                }
+                report("Gzip, single thread", single, start, written);
+
+                if (mapped != pipelined || mapped != single) {
+                    System.out.println("Mismatch between methods: " + mapped + " / " + pipelined + " / " + single);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(plain);
+            Files.deleteIfExists(gzip);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void report(String name, long errors, long start, long bytes) {
+        long millis = Math.max(1, System.currentTimeMillis() - start);
+        System.out.println(String.format("%-20s errors=%,d  %,d ms  %.1f MB/s",
+                name, errors, millis, bytes / 1024.0 / 1024.0 / (millis / 1000.0)));
+    }
+}
@@ -0,0 +1,272 @@
+package class8.log_processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+// ============================================================================
+// CompressedLogReader: pipelined processing of .gz logs
+//
+//   [decompressor thread] --filled--> [N matcher workers] --free--> (back)
+//
+// The decompressor inflates into a fixed set of reusable byte buffers and
+// hands each one over ending at a '\n' (the unfinished line is copied to the
+// front of the next buffer; a line longer than a whole buffer makes that
+// buffer grow, so every line is matched whole). Workers run the matcher on
+// the raw bytes and return the buffer to the free queue. Both queues are
+// bounded by the number of buffers, so a slow stage back-pressures the other
+// and memory is fixed apart from buffers grown for very long lines.
+//
+// Called from a fork/join worker (e.g. one task of a parallel classification
+// over many files) the caller is already one of N busy threads, so the file
+// is inflated and matched on that thread with two buffers instead of
+// starting another decompressor plus N-1 workers per file.
+// ============================================================================
+class CompressedLogReader {
+
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final int workers;
+    private final int bufferSize;
+    private final int bufferCount;
+
+    public CompressedLogReader() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 1 << 20, 0);
+    }
+
+    public CompressedLogReader(int workers, int bufferSize, int bufferCount) {
+        if (workers <= 0 || bufferSize <= 0)
+            throw new IllegalArgumentException("workers and bufferSize must be > 0");
+        this.workers = workers;
+        this.bufferSize = bufferSize;
+        this.bufferCount = Math.max(bufferCount, 2 * workers + 1);
+    }
+
+    public static boolean isCompressed(Path path) {
+        return path.getFileName().toString().endsWith(".gz");
+    }
+
+    // Lines of a plain or gzip-compressed log (for the String-based counters)
+    public static Stream<String> lines(Path path) throws IOException {
+        if (!isCompressed(path)) {
+            return Files.lines(path);
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(openGzip(path), StandardCharsets.UTF_8));
+        return reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // GZIPInputStream reads the header in its constructor; close the file if that fails
+    private static InputStream openGzip(Path path) throws IOException {
+        InputStream raw = Files.newInputStream(path);
+        try {
+            return new GZIPInputStream(raw, 1 << 16);
+        } catch (IOException | RuntimeException e) {
+            raw.close();
+            throw e;
+        }
+    }
+
+    public long countMatchingLines(Path path, byte[] keyword) throws IOException {
+        return process(path, buffer -> MappedErrorScanner.countMatchingLines(buffer, keyword), Long::sum, 0L);
+    }
+
+    // Runs matcher over every newline-aligned block of the decompressed file and merges the results
+    public <R> R process(Path path, Function<ByteBuffer, R> matcher, BinaryOperator<R> merge, R identity)
+            throws IOException {
+        if (ForkJoinTask.inForkJoinPool()) {
+            return processInline(path, matcher, merge, identity);
+        }
+        BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(bufferCount);
+        BlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(bufferCount + workers);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(ByteBuffer.allocate(bufferSize));
+        }
+
+        List<Worker<R>> pool = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            Worker<R> worker = new Worker<>(filled, free, matcher, merge, identity);
+            worker.start();
+            pool.add(worker);
+        }
+
+        IOException failure = null;
+        try (InputStream in = openGzip(path)) {
+            decompress(in, free, filled::put);
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new IOException("Interrupted while reading " + path, e);
+        } finally {
+            for (int i = 0; i < workers; i++) {
+                filled.add(END);
+            }
+        }
+
+        R result = identity;
+        for (Worker<R> worker : pool) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + path, e);
+            }
+            if (worker.error != null && failure == null) {
+                failure = new IOException(worker.error);
+            }
+            result = merge.apply(result, worker.result);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return result;
+    }
+
+    // Same decompression, but the matcher runs on the calling thread as each block is handed over
+    private <R> R processInline(Path path, Function<ByteBuffer, R> matcher, BinaryOperator<R> merge, R identity)
+            throws IOException {
+        BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(2);
+        free.add(ByteBuffer.allocate(bufferSize));
+        free.add(ByteBuffer.allocate(bufferSize));
+        AtomicReference<R> result = new AtomicReference<>(identity);
+        try (InputStream in = openGzip(path)) {
+            decompress(in, free, buffer -> {
+                try {
+                    result.set(merge.apply(result.get(), matcher.apply(buffer)));
+                } finally {
+                    free.put(buffer);
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + path, e);
+        }
+        return result.get();
+    }
+
+    private interface Handoff {
+        void put(ByteBuffer buffer) throws InterruptedException;
+    }
+
+    private void decompress(InputStream in, BlockingQueue<ByteBuffer> free, Handoff filled)
+            throws IOException, InterruptedException {
+        ByteBuffer current = free.take();
+        current.clear();
+        while (true) {
+            int read = in.read(current.array(), current.position(), current.remaining());
+            if (read < 0) {
+                break;
+            }
+            current.position(current.position() + read);
+            if (current.hasRemaining()) {
+                continue;
+            }
+
+            // full: hand over everything up to the last newline, carry the rest into the next buffer
+            int cut = lastNewline(current) + 1;
+            if (cut == 0) {
+                current = grow(current); // one line longer than the buffer; it replaces current in the pool
+                continue;
+            }
+            ByteBuffer next = free.take();
+            if (current.position() - cut >= next.capacity()) {
+                next = ByteBuffer.allocate(current.capacity()); // the tail of a long line does not fit
+            }
+            next.clear();
+            next.put(current.array(), cut, current.position() - cut);
+
+            current.limit(cut).position(0);
+            filled.put(current);
+            current = next;
+        }
+
+        current.flip();
+        if (current.hasRemaining()) {
+            filled.put(current);
+        } else {
+            free.put(current);
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() > Integer.MAX_VALUE / 2)
+            throw new IOException("Line longer than " + buffer.capacity() + " bytes");
+        ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+        bigger.put(buffer.array(), 0, buffer.position());
+        return bigger;
+    }
+
+    private static int lastNewline(ByteBuffer buffer) {
+        byte[] bytes = buffer.array();
+        for (int i = buffer.position() - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static class Worker<R> extends Thread {
+        private final BlockingQueue<ByteBuffer> filled;
+        private final BlockingQueue<ByteBuffer> free;
+        private final Function<ByteBuffer, R> matcher;
+        private final BinaryOperator<R> merge;
+        R result;
+        RuntimeException error;
+
+        Worker(BlockingQueue<ByteBuffer> filled, BlockingQueue<ByteBuffer> free,
+               Function<ByteBuffer, R> matcher, BinaryOperator<R> merge, R identity) {
+            this.filled = filled;
+            this.free = free;
+            this.matcher = matcher;
+            this.merge = merge;
+            this.result = identity;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    ByteBuffer buffer = filled.take();
+                    if (buffer == END) {
+                        return;
+                    }
+                    try {
+                        if (error == null) {
+                            result = merge.apply(result, matcher.apply(buffer));
+                        }
+                    } catch (RuntimeException e) {
+                        error = e; // keep draining so the decompressor never blocks forever
+                    } finally {
+                        free.put(buffer);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package class8.log_processor;
+
+// ============================================================================
+// CountMinSketch: fixed-size frequency estimate (never under-counts)
+//
+// Sketches with the same width and depth merge by adding their cells, which
+// is what lets per-chunk partial results be combined in any order.
+// ============================================================================
+class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L
+    };
+
+    private final int width;
+    private final int depth;
+    private final long[][] cells;
+
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0 || depth > SEEDS.length)
+            throw new IllegalArgumentException("width > 0 and 0 < depth <= " + SEEDS.length + " required");
+        this.width = width;
+        this.depth = depth;
+        this.cells = new long[depth][width];
+    }
+
+    public void add(String item, long count) {
+        int hash = item.hashCode();
+        for (int row = 0; row < depth; row++) {
+            cells[row][indexOf(hash, row)] += count;
+        }
+    }
+
+    public long estimate(String item) {
+        int hash = item.hashCode();
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, cells[row][indexOf(hash, row)]);
+        }
+        return min;
+    }
+
+    public CountMinSketch merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth)
+            throw new IllegalArgumentException("sketch dimensions differ");
+        CountMinSketch merged = new CountMinSketch(width, depth);
+        for (int row = 0; row < depth; row++) {
+            for (int col = 0; col < width; col++) {
+                merged.cells[row][col] = cells[row][col] + other.cells[row][col];
+            }
+        }
+        return merged;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % SEEDS.length];
+        h ^= h >>> 31;
+        return (int) ((h & Long.MAX_VALUE) % width);
+    }
+}
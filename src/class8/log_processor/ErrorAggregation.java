@@ -0,0 +1,268 @@
+package class8.log_processor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+// ============================================================================
+// ErrorAggregation: streaming summary of the "ERROR" lines of some logs
+//
+//  - total error count, and per-minute counts keyed by the "yyyy-MM-dd HH:mm"
+//    line prefix (lines without that prefix count only towards the total)
+//  - top-N most frequent normalized messages: a Count-Min Sketch estimates
+//    frequencies and only a bounded set of candidates is kept in an indexed
+//    min-heap, so memory does not grow with the number of distinct messages
+//    and replacing the weakest candidate costs O(log N)
+//
+// merge(): the total, the minute counts and the sketches add up exactly, so
+// they do not depend on how the input was split. The candidates of both sides
+// are re-ranked with the merged sketch, but a message that one side already
+// dropped cannot come back. Near the cut-off the top-N is therefore
+// approximate and may depend on the split and on the merge order. The 4x
+// candidate slack makes this unlikely for messages that are clearly in the
+// top-N.
+// ============================================================================
+class ErrorAggregation {
+
+    private static final int SKETCH_WIDTH = 2048;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int TIMESTAMP_MINUTE_LENGTH = 16; // 2025-01-12 10:00
+
+    private final int topN;
+    private final int candidateCapacity;
+    private final TreeMap<String, Long> perMinute = new TreeMap<>();
+    private final CandidateHeap candidates;
+    private long totalErrors;
+    private CountMinSketch sketch = new CountMinSketch(SKETCH_WIDTH, SKETCH_DEPTH);
+
+    public ErrorAggregation(int topN) {
+        if (topN <= 0)
+            throw new IllegalArgumentException("topN must be > 0");
+        this.topN = topN;
+        this.candidateCapacity = 4 * topN; // slack so near-ties survive merges
+        this.candidates = new CandidateHeap(candidateCapacity);
+    }
+
+    public static ErrorAggregation ofFile(Path path, int topN) {
+        ErrorAggregation aggregation = new ErrorAggregation(topN);
+        try (Stream<String> lines = CompressedLogReader.lines(path)) {
+            lines.forEach(aggregation::accept);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return aggregation;
+    }
+
+    public void accept(String line) {
+        int errorAt = line.indexOf("ERROR");
+        if (errorAt < 0) {
+            return;
+        }
+        totalErrors++;
+        if (hasMinuteTimestamp(line)) {
+            perMinute.merge(line.substring(0, TIMESTAMP_MINUTE_LENGTH), 1L, Long::sum);
+        }
+
+        String message = normalize(line);
+        sketch.add(message, 1);
+        offer(message, sketch.estimate(message));
+    }
+
+    public ErrorAggregation merge(ErrorAggregation other) {
+        ErrorAggregation merged = new ErrorAggregation(topN);
+        merged.perMinute.putAll(perMinute);
+        other.perMinute.forEach((minute, count) -> merged.perMinute.merge(minute, count, Long::sum));
+        merged.totalErrors = totalErrors + other.totalErrors;
+        merged.sketch = sketch.merge(other.sketch);
+
+        Set<String> union = new HashSet<>(candidates.messages());
+        union.addAll(other.candidates.messages());
+        for (String message : union) {
+            merged.offer(message, merged.sketch.estimate(message));
+        }
+        return merged;
+    }
+
+    public SortedMap<String, Long> getErrorsPerMinute() {
+        return Collections.unmodifiableSortedMap(perMinute);
+    }
+
+    // All error lines, including those without a timestamp (which getErrorsPerMinute cannot place)
+    public long getTotalErrors() {
+        return totalErrors;
+    }
+
+    // Most frequent first; counts are Count-Min estimates (upper bounds)
+    public List<Map.Entry<String, Long>> getTopMessages() {
+        PriorityQueue<Map.Entry<String, Long>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (int i = 0; i < candidates.size(); i++) {
+            heap.add(Map.entry(candidates.messageAt(i), candidates.estimateAt(i)));
+            if (heap.size() > topN) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<String, Long>> top = new ArrayList<>(heap);
+        top.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        return top;
+    }
+
+    private void offer(String message, long estimate) {
+        if (candidates.contains(message) || candidates.size() < candidateCapacity) {
+            candidates.put(message, estimate);
+            return;
+        }
+        if (estimate > candidates.minEstimate()) {
+            candidates.replaceMin(message, estimate);
+        }
+    }
+
+    private static boolean hasMinuteTimestamp(String line) {
+        if (line.length() < TIMESTAMP_MINUTE_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < TIMESTAMP_MINUTE_LENGTH; i++) {
+            char c = line.charAt(i);
+            boolean ok = switch (i) {
+                case 4, 7 -> c == '-';
+                case 10 -> c == ' ';
+                case 13 -> c == ':';
+                default -> Character.isDigit(c);
+            };
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Drops the timestamp and replaces every run of digits with '#', so "user 17 timed out" and
+    // "user 42 timed out" count as the same message
+    static String normalize(String line) {
+        int start = line.lastIndexOf(" [", line.indexOf("ERROR"));
+        String message = start >= 0 ? line.substring(start + 1) : line;
+
+        StringBuilder sb = new StringBuilder(message.length());
+        boolean inNumber = false;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (Character.isDigit(c)) {
+                if (!inNumber) {
+                    sb.append('#');
+                    inNumber = true;
+                }
+            } else {
+                sb.append(c);
+                inNumber = false;
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    // Min-heap on estimate with a message -> slot index, so a candidate whose estimate
+    // grows is re-positioned in place instead of being searched for
+    private static class CandidateHeap {
+        private final String[] messages;
+        private final long[] estimates;
+        private final Map<String, Integer> slots = new HashMap<>();
+        private int size;
+
+        CandidateHeap(int capacity) {
+            messages = new String[capacity];
+            estimates = new long[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(String message) {
+            return slots.containsKey(message);
+        }
+
+        Set<String> messages() {
+            return slots.keySet();
+        }
+
+        String messageAt(int slot) {
+            return messages[slot];
+        }
+
+        long estimateAt(int slot) {
+            return estimates[slot];
+        }
+
+        long minEstimate() {
+            return estimates[0];
+        }
+
+        // Inserts the message, or updates its estimate if it is already a candidate
+        void put(String message, long estimate) {
+            Integer slot = slots.get(message);
+            if (slot != null) {
+                long previous = estimates[slot];
+                estimates[slot] = estimate;
+                if (estimate < previous) {
+                    siftUp(slot);
+                } else {
+                    siftDown(slot);
+                }
+                return;
+            }
+            if (size == messages.length)
+                throw new IllegalStateException("candidate heap is full");
+            set(size, message, estimate);
+            siftUp(size++);
+        }
+
+        void replaceMin(String message, long estimate) {
+            slots.remove(messages[0]);
+            set(0, message, estimate);
+            siftDown(0);
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) / 2;
+                if (estimates[parent] <= estimates[slot]) {
+                    return;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int smallest = slot;
+                int left = 2 * slot + 1;
+                int right = left + 1;
+                if (left < size && estimates[left] < estimates[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && estimates[right] < estimates[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == slot) {
+                    return;
+                }
+                swap(slot, smallest);
+                slot = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            String message = messages[a];
+            long estimate = estimates[a];
+            set(a, messages[b], estimates[b]);
+            set(b, message, estimate);
+        }
+
+        private void set(int slot, String message, long estimate) {
+            messages[slot] = message;
+            estimates[slot] = estimate;
+            slots.put(message, slot);
+        }
+    }
+}
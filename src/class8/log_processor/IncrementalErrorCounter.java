@@ -0,0 +1,212 @@
+package class8.log_processor;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.function.LongConsumer;
+
+// ============================================================================
+// IncrementalErrorCounter: counts "ERROR" lines over a growing set of logs
+// and only reads bytes that were appended since the previous run
+//
+// Per file the checkpoint stores: file identity (inode), path, offset of the
+// first byte after the last complete line, and the count up to that offset.
+//  - same identity, bigger file  -> scan only [offset, size)
+//  - same identity, same size    -> nothing to read
+//  - smaller file (truncated)    -> rescan from 0
+//  - new identity (rotated)      -> rescan from 0; a renamed file keeps its state
+//  - compressed (.gz)            -> counted whole once, then skipped while its size is unchanged
+// A trailing line without '\n' is counted but not checkpointed, so it is
+// re-read (and counted once) when it is completed.
+// ============================================================================
+class IncrementalErrorCounter {
+
+    record FileState(String identity, String path, long offset, long count) {
+    }
+
+    private static final byte[] KEYWORD = "ERROR".getBytes(StandardCharsets.UTF_8);
+
+    private final Path checkpointFile;
+    private final Map<String, FileState> states = new HashMap<>();
+
+    public IncrementalErrorCounter(Path checkpointFile) throws IOException {
+        this.checkpointFile = checkpointFile;
+        load();
+    }
+
+    // Scans the given files, updates and saves the checkpoint, returns the total count
+    public long scan(List<Path> files) throws IOException {
+        Map<String, FileState> updated = new HashMap<>();
+        long total = 0;
+
+        for (Path file : files) {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                continue; // rotated away between listing and reading
+            }
+            String identity = identityOf(file, attributes);
+            FileState previous = states.get(identity);
+
+            long offset = 0;
+            long count = 0;
+            if (previous != null && attributes.size() >= previous.offset()) {
+                offset = previous.offset();
+                count = previous.count();
+            }
+
+            long[] scanned;
+            if (CompressedLogReader.isCompressed(file)) {
+                // rotated archives are written once and cannot be inflated from an offset
+                boolean unchanged = previous != null && previous.offset() == attributes.size();
+                count = unchanged ? previous.count() : 0;
+                scanned = new long[]{attributes.size(),
+                        unchanged ? 0 : new CompressedLogReader().countMatchingLines(file, KEYWORD), 0};
+            } else {
+                scanned = scanFrom(file, offset, attributes.size());
+            }
+            FileState state = new FileState(identity, file.toString(), scanned[0], count + scanned[1]);
+            updated.put(identity, state);
+            total += state.count() + scanned[2];
+        }
+
+        states.clear();
+        states.putAll(updated); // files that disappeared are dropped
+        save();
+        return total;
+    }
+
+    public long scanDirectory(Path directory, String glob) throws IOException {
+        return scan(list(directory, glob));
+    }
+
+    // Keeps scanning whenever the directory changes; blocks until interrupted
+    public void watch(Path directory, String glob, LongConsumer onTotal) throws IOException, InterruptedException {
+        try (WatchService watcher = directory.getFileSystem().newWatchService()) {
+            directory.register(watcher,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+
+            onTotal.accept(scanDirectory(directory, glob));
+            while (true) {
+                WatchKey key = watcher.take();
+                // collapse a burst of events (and OVERFLOW) into one rescan; unchanged files cost one stat
+                key.pollEvents();
+                onTotal.accept(scanDirectory(directory, glob));
+                if (!key.reset()) {
+                    return; // directory is gone
+                }
+            }
+        }
+    }
+
+    // Returns {new checkpoint offset, matches in complete lines, matches in the trailing partial line}
+    private static long[] scanFrom(Path file, long offset, long size) throws IOException {
+        if (offset >= size) {
+            return new long[]{offset, 0, 0};
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long complete = 0;
+            long partial = 0;
+            long position = offset;
+            while (position < size) {
+                long length = Math.min(size - position, MappedErrorScanner.DEFAULT_CHUNK_SIZE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int lastNewline = lastIndexOf(buffer, (byte) '\n');
+                boolean endOfFile = position + length == size;
+                if (lastNewline < 0 && !endOfFile) {
+                    // a line longer than a chunk: read on until a newline shows up
+                    length = Math.min(size - position, (long) Integer.MAX_VALUE);
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                    lastNewline = lastIndexOf(buffer, (byte) '\n');
+                    endOfFile = position + length == size;
+                    if (lastNewline < 0 && !endOfFile) {
+                        throw new IOException("Line longer than 2 GB in " + file);
+                    }
+                }
+
+                int completeEnd = lastNewline + 1;
+                complete += MappedErrorScanner.countMatchingLines(buffer.slice(0, completeEnd), KEYWORD);
+                if (endOfFile) {
+                    partial = MappedErrorScanner.countMatchingLines(buffer.slice(completeEnd, (int) length - completeEnd), KEYWORD);
+                    return new long[]{position + completeEnd, complete, partial};
+                }
+                position += completeEnd;
+            }
+            return new long[]{position, complete, partial};
+        }
+    }
+
+    private static int lastIndexOf(MappedByteBuffer buffer, byte value) {
+        for (int i = buffer.limit() - 1; i >= 0; i--) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // inode/device where the file system has one, so a renamed (rotated) file keeps its state
+    private static String identityOf(Path file, BasicFileAttributes attributes) {
+        Object key = attributes.fileKey();
+        return key != null ? key.toString() : file.toAbsolutePath() + "@" + attributes.creationTime().toMillis();
+    }
+
+    static List<Path> list(Path directory, String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(directory, glob)) {
+            for (Path p : ds) {
+                files.add(p);
+            }
+        }
+        return files;
+    }
+
+    // ------------------------------------------------------------------------
+    // checkpoint file: one "identity \t path \t offset \t count" line per file
+    // ------------------------------------------------------------------------
+
+    private void load() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return;
+        }
+        for (String line : Files.readAllLines(checkpointFile, StandardCharsets.UTF_8)) {
+            String[] parts = line.split("\t");
+            if (parts.length == 4) {
+                states.put(parts[0], new FileState(parts[0], parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3])));
+            }
+        }
+    }
+
+    private void save() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (FileState state : states.values()) {
+            sb.append(state.identity()).append('\t')
+                    .append(state.path()).append('\t')
+                    .append(state.offset()).append('\t')
+                    .append(state.count()).append('\n');
+        }
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        Files.writeString(temp, sb, StandardCharsets.UTF_8);
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ================================
+    // Continuous mode: java ... IncrementalErrorCounter <logs dir> <checkpoint file>
+    // ================================
+    public static void main(String[] args) throws Exception {
+        Path logsDir = Paths.get(args.length > 0 ? args[0] : "src/class8/logs");
+        Path checkpoint = Paths.get(args.length > 1 ? args[1] : "log-error-counter.checkpoint");
+
+        IncrementalErrorCounter counter = new IncrementalErrorCounter(checkpoint);
+        System.out.println("Watching " + logsDir + " (checkpoint: " + checkpoint + ")");
+        counter.watch(logsDir, "*.{log,gz}", total -> System.out.println("Total errors: " + total));
+    }
+}
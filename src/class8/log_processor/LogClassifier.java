@@ -0,0 +1,168 @@
+package class8.log_processor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// ============================================================================
+// LogClassifier: counts many keywords in one pass with an Aho-Corasick
+// automaton built over bytes
+//
+// Like the "ERROR" counters, a keyword is counted once per line that contains
+// it, so the "ERROR" entry matches countErrorsSequential. The automaton is
+// immutable after construction and can be shared by any number of threads.
+// ============================================================================
+class LogClassifier {
+
+    public static final List<String> DEFAULT_PATTERNS = List.of("ERROR", "WARN", "FATAL", "Exception");
+
+    private final List<String> patterns;
+    private final int[][] transitions; // transitions[state][byte] -> next state (failure links folded in)
+    private final int[][] outputs;     // outputs[state] -> ids of every pattern ending in this state
+
+    public LogClassifier(List<String> patterns) {
+        if (patterns.isEmpty())
+            throw new IllegalArgumentException("at least one pattern required");
+        this.patterns = List.copyOf(new LinkedHashSet<>(patterns));
+
+        // 1. trie
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        trie.add(newState());
+        out.add(new ArrayList<>());
+        for (int id = 0; id < this.patterns.size(); id++) {
+            byte[] bytes = this.patterns.get(id).getBytes(StandardCharsets.UTF_8);
+            if (bytes.length == 0)
+                throw new IllegalArgumentException("empty pattern");
+            int state = 0;
+            for (byte b : bytes) {
+                int c = b & 0xFF;
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newState());
+                    out.add(new ArrayList<>());
+                }
+                state = trie.get(state)[c];
+            }
+            out.get(state).add(id);
+        }
+
+        // 2. failure links in BFS order, turning the trie into a full transition table
+        int[] failure = new int[trie.size()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < 256; c++) {
+            int next = trie.get(0)[c];
+            if (next < 0) {
+                trie.get(0)[c] = 0;
+            } else {
+                failure[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            out.get(state).addAll(out.get(failure[state]));
+            for (int c = 0; c < 256; c++) {
+                int next = trie.get(state)[c];
+                if (next < 0) {
+                    trie.get(state)[c] = trie.get(failure[state])[c];
+                } else {
+                    failure[next] = trie.get(failure[state])[c];
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.transitions = trie.toArray(new int[0][]);
+        this.outputs = new int[out.size()][];
+        for (int i = 0; i < out.size(); i++) {
+            outputs[i] = out.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public static LogClassifier withDefaults(String... extraPatterns) {
+        List<String> all = new ArrayList<>(DEFAULT_PATTERNS);
+        all.addAll(Arrays.asList(extraPatterns));
+        return new LogClassifier(all);
+    }
+
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    // Per-pattern line counts for the bytes in [position, limit) of the buffer, indexed like getPatterns()
+    public long[] count(ByteBuffer buffer) {
+        long[] counts = new long[patterns.size()];
+        long[] lastLine = new long[patterns.size()];
+        Arrays.fill(lastLine, -1);
+
+        long line = 0;
+        int state = 0;
+        for (int i = buffer.position(), limit = buffer.limit(); i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                line++;
+                state = 0; // keywords never span lines
+                continue;
+            }
+            state = transitions[state][b & 0xFF];
+            for (int id : outputs[state]) {
+                if (lastLine[id] != line) {
+                    lastLine[id] = line;
+                    counts[id]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    // Memory-maps the file in newline-aligned chunks and sums the per-chunk counts
+    public long[] count(Path file) {
+        long[] total = new long[patterns.size()];
+        if (CompressedLogReader.isCompressed(file)) {
+            try {
+                return new CompressedLogReader().process(file, this::count,
+                        (left, right) -> merge(left.clone(), right), total);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (MappedErrorScanner.Chunk chunk : MappedErrorScanner.split(file, MappedErrorScanner.DEFAULT_CHUNK_SIZE)) {
+                long length = chunk.end() - chunk.start();
+                if (length > 0) {
+                    merge(total, count(channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), length)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return total;
+    }
+
+    public static long[] merge(long[] into, long[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            into[i] += counts[i];
+        }
+        return into;
+    }
+
+    public Map<String, Long> toMap(long[] counts) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < patterns.size(); i++) {
+            result.put(patterns.get(i), counts[i]);
+        }
+        return result;
+    }
+
+    private static int[] newState() {
+        int[] state = new int[256];
+        Arrays.fill(state, -1);
+        return state;
+    }
+}
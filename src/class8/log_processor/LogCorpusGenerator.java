@@ -0,0 +1,93 @@
+package class8.log_processor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// ============================================================================
+// LogCorpusGenerator: deterministic synthetic logs in the format of
+// src/class8/logs ("2025-01-12 10:00:00.050000 [Auth] INFO Operation ...")
+//
+// The same seed and settings always produce byte-identical files. Every line
+// is padded to lineLength bytes (including '\n'), and a line contains "ERROR"
+// with probability errorRatio and never otherwise, so the expected counts are
+// known without scanning the output.
+// ============================================================================
+class LogCorpusGenerator {
+
+    record Corpus(List<Path> files, long bytes, long lines, long errorLines) {
+    }
+
+    private static final String[] COMPONENTS = {"API", "Auth", "Cache", "DB", "Scheduler", "Worker"};
+    private static final String[] OTHER_LEVELS = {"INFO", "INFO", "INFO", "DEBUG", "WARN"};
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 12, 10, 0);
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    private final long seed;
+    private final int fileCount;
+    private final long fileBytes;
+    private final int lineLength;
+    private final double errorRatio;
+
+    public LogCorpusGenerator(long seed, int fileCount, long fileBytes, int lineLength, double errorRatio) {
+        if (fileCount <= 0 || fileBytes <= 0)
+            throw new IllegalArgumentException("fileCount and fileBytes must be > 0");
+        if (lineLength < 80)
+            throw new IllegalArgumentException("lineLength must be >= 80");
+        if (errorRatio < 0 || errorRatio > 1)
+            throw new IllegalArgumentException("errorRatio must be in [0, 1]");
+        this.seed = seed;
+        this.fileCount = fileCount;
+        this.fileBytes = fileBytes;
+        this.lineLength = lineLength;
+        this.errorRatio = errorRatio;
+    }
+
+    // Writes log_0.log .. log_{fileCount-1}.log into the directory
+    public Corpus generate(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        long bytes = 0, lines = 0, errorLines = 0;
+
+        for (int f = 0; f < fileCount; f++) {
+            Random random = new Random(seed * 31 + f); // per file, so files are independent of fileCount
+            Path file = directory.resolve("log_" + f + ".log");
+            LocalDateTime time = START;
+            StringBuilder line = new StringBuilder(lineLength);
+
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (long written = 0; written + lineLength <= fileBytes; written += lineLength) {
+                    boolean error = random.nextDouble() < errorRatio;
+                    line.setLength(0);
+                    line.append(TIMESTAMP.format(time))
+                            .append(" [").append(COMPONENTS[random.nextInt(COMPONENTS.length)]).append("] ")
+                            .append(error ? "ERROR" : OTHER_LEVELS[random.nextInt(OTHER_LEVELS.length)])
+                            .append(error ? " Operation failed" : " Operation completed")
+                            .append(" id=").append(Long.toHexString(random.nextLong()));
+                    while (line.length() < lineLength - 1) {
+                        line.append((char) ('a' + random.nextInt(26)));
+                    }
+                    line.setLength(lineLength - 1);
+                    line.append('\n');
+                    out.append(line);
+
+                    time = time.plusNanos(50_000_000);
+                    lines++;
+                    if (error) {
+                        errorLines++;
+                    }
+                }
+            }
+            bytes += Files.size(file);
+            files.add(file);
+        }
+        return new Corpus(files, bytes, lines, errorLines);
+    }
+}
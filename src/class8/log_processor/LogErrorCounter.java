@@ -1,31 +1,59 @@
 package class8.log_processor;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.*;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.*;
 import java.util.stream.Stream;
 
 
-class ErrorCounterThread extends Thread {
-    Path path;
-    long result;
-    public ErrorCounterThread(Path path) {
-        this.path = path;
+// ============================================================================
+// ErrorCounterTask / ClassifierTask: count one batch of files on a pool
+// thread and hand the result back through the Future returned by submit()
+// ============================================================================
+class ErrorCounterTask implements Callable<Long> {
+    private final List<Path> paths;
+
+    public ErrorCounterTask(List<Path> paths) {
+        this.paths = paths;
     }
+
     @Override
-    public void run() {
-        try {
-            result = Files.lines(path)
-                    .filter(line -> line.contains("ERROR"))
-                    .count();
-        } catch (IOException e) {
-            System.out.println(e.getMessage());
+    public Long call() {
+        long result = 0;
+        for (Path path : paths) {
+            try (Stream<String> lines = CompressedLogReader.lines(path)) {
+                result += lines.filter(line -> line.contains("ERROR")).count();
+            } catch (IOException | UncheckedIOException e) {
+                System.out.println(e.getMessage());
+            }
         }
+        return result;
     }
+}
 
-    public long getResult() {
+class ClassifierTask implements Callable<long[]> {
+    private final List<Path> paths;
+    private final LogClassifier classifier;
+
+    public ClassifierTask(List<Path> paths, LogClassifier classifier) {
+        this.paths = paths;
+        this.classifier = classifier;
+    }
+
+    @Override
+    public long[] call() {
+        long[] result = new long[classifier.getPatterns().size()];
+        for (Path path : paths) {
+            try {
+                LogClassifier.merge(result, classifier.count(path));
+            } catch (UncheckedIOException e) {
+                System.out.println(e.getMessage());
+            }
+        }
         return result;
     }
 }
@@ -40,7 +68,7 @@ public class LogErrorCounter {
         return files.stream()
                 .flatMap(path -> {
                     try {
-                        return Files.lines(path);
+                        return CompressedLogReader.lines(path);
                     } catch (IOException e) {
                         System.out.println(e.getMessage());
                         return Stream.empty();
@@ -51,25 +79,134 @@ public class LogErrorCounter {
     }
 
     // ================================
-    // Concurrent approach
+    // Concurrent approach: per-file tasks on a bounded work-stealing pool
     // ================================
 
+    // files smaller than this are grouped into one task, so 50,000 tiny logs do not cost 50,000 tasks
+    public static final long DEFAULT_BATCH_BYTES = 256 * 1024;
 
     public static long countErrorsConcurrent(List<Path> files) throws InterruptedException {
-        List<ErrorCounterThread> threads = files.stream()
-                .map(ErrorCounterThread::new)
-                .collect(Collectors.toList());
+        return countErrorsConcurrent(files, DEFAULT_BATCH_BYTES);
+    }
 
-        threads.forEach(ErrorCounterThread::start);
+    // batchBytes = 0 submits one task per file
+    public static long countErrorsConcurrent(List<Path> files, long batchBytes) throws InterruptedException {
+        long total = 0;
+        try (ExecutorService pool = Executors.newWorkStealingPool()) {
+            List<Future<Long>> results = new ArrayList<>();
+            for (List<Path> batch : batches(files, batchBytes)) {
+                results.add(pool.submit(new ErrorCounterTask(batch)));
+            }
+            for (Future<Long> result : results) {
+                total += getResult(result);
+            }
+        }
+        return total;
+    }
 
-        for (ErrorCounterThread thread : threads) {
-            thread.join();
+    // Groups consecutive files until a group holds at least batchBytes; bigger files get a task of their own
+    static List<List<Path>> batches(List<Path> files, long batchBytes) {
+        List<List<Path>> batches = new ArrayList<>();
+        List<Path> current = new ArrayList<>();
+        long currentBytes = 0;
+        for (Path path : files) {
+            long size = sizeOf(path);
+            if (size >= batchBytes && !current.isEmpty()) {
+                batches.add(current); // flush the small files so the big one is not queued behind them
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+            current.add(path);
+            currentBytes += size;
+            if (currentBytes >= batchBytes) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
         }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
 
-        return threads.stream()
-                .mapToLong(ErrorCounterThread::getResult)
-                .sum();
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0; // the task reports the error when it tries to read the file
+        }
+    }
 
+    private static <T> T getResult(Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // ================================
+    // Multi-pattern classification (one pass per file for all keywords)
+    // ================================
+    public static Map<String, Long> classifySequential(List<Path> files, LogClassifier classifier) {
+        long[] total = new long[classifier.getPatterns().size()];
+        for (Path path : files) {
+            try {
+                LogClassifier.merge(total, classifier.count(path));
+            } catch (UncheckedIOException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+        return classifier.toMap(total);
+    }
+
+    public static Map<String, Long> classifyConcurrent(List<Path> files, LogClassifier classifier) throws InterruptedException {
+        long[] total = new long[classifier.getPatterns().size()];
+        try (ExecutorService pool = Executors.newWorkStealingPool()) {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (List<Path> batch : batches(files, DEFAULT_BATCH_BYTES)) {
+                results.add(pool.submit(new ClassifierTask(batch, classifier)));
+            }
+            for (Future<long[]> result : results) {
+                LogClassifier.merge(total, getResult(result));
+            }
+        }
+        return classifier.toMap(total);
+    }
+
+    // ================================
+    // Streaming aggregation: errors per minute + top-N messages
+    // ================================
+    public static ErrorAggregation aggregateErrors(List<Path> files, int topN) {
+        // per-file partial results, combined in whatever order the parallel stream picks
+        return files.parallelStream()
+                .map(path -> {
+                    try {
+                        return ErrorAggregation.ofFile(path, topN);
+                    } catch (UncheckedIOException e) {
+                        System.out.println(e.getMessage());
+                        return new ErrorAggregation(topN);
+                    }
+                })
+                .reduce(new ErrorAggregation(topN), ErrorAggregation::merge);
+    }
+
+    // ================================
+    // Memory-mapped, split-parallel approach
+    // ================================
+    public static long countErrorsMapped(List<Path> files) throws IOException {
+        return new MappedErrorScanner().countErrors(files);
+    }
+
+    // ================================
+    // Incremental approach (only bytes appended since the last checkpoint)
+    // ================================
+    public static long countErrorsIncremental(List<Path> files, Path checkpoint) throws IOException {
+        return new IncrementalErrorCounter(checkpoint).scan(files);
     }
 
     // ================================
@@ -84,9 +221,9 @@ public class LogErrorCounter {
             return;
         }
 
-        // Collect all .log files
+        // Collect all .log files (and rotated, gzip-compressed ones)
         List<Path> files = new ArrayList<>();
-        try (DirectoryStream<Path> ds = Files.newDirectoryStream(logsDir, "*.log")) {
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(logsDir, "*.{log,gz}")) {
             for (Path p : ds) {
                 files.add(p);
 //                files.add(p);
@@ -119,12 +256,53 @@ public class LogErrorCounter {
         System.out.println("Concurrent time: " + (endConc - startConc) + " ms");
         System.out.println();
 
+        // Memory-mapped measurement
+        long startMapped = System.currentTimeMillis();
+        long mappedTotal = countErrorsMapped(files);
+        long endMapped = System.currentTimeMillis();
+
+        System.out.println("Memory-mapped total errors: " + mappedTotal);
+        System.out.println("Memory-mapped time: " + (endMapped - startMapped) + " ms");
+        System.out.println();
+
+        // Incremental measurement: first run reads everything, the rerun only checks sizes
+        Path checkpoint = Files.createTempFile("log-error-counter", ".checkpoint");
+        Files.delete(checkpoint);
+        long incrementalTotal = countErrorsIncremental(files, checkpoint);
+        long startRerun = System.currentTimeMillis();
+        long rerunTotal = countErrorsIncremental(files, checkpoint);
+        long endRerun = System.currentTimeMillis();
+        Files.deleteIfExists(checkpoint);
+
+        System.out.println("Incremental total errors: " + incrementalTotal + " (rerun: " + rerunTotal + ")");
+        System.out.println("Incremental rerun time (unchanged files): " + (endRerun - startRerun) + " ms");
+        System.out.println();
+
+        // Multi-pattern classification
+        LogClassifier classifier = LogClassifier.withDefaults("DEBUG", "Operation failed", "[DB]", "[Auth]");
+        long startClassify = System.currentTimeMillis();
+        Map<String, Long> seqClasses = classifySequential(files, classifier);
+        long endClassify = System.currentTimeMillis();
+        Map<String, Long> concClasses = classifyConcurrent(files, classifier);
+
+        System.out.println("Classification: " + seqClasses);
+        System.out.println("Classification time (sequential): " + (endClassify - startClassify) + " ms"
+                + (seqClasses.equals(concClasses) ? "" : " - WARNING: concurrent result differs: " + concClasses));
+        System.out.println();
+
+        // Streaming aggregation
+        ErrorAggregation aggregation = aggregateErrors(files, 5);
+        System.out.println("Errors per minute: " + aggregation.getErrorsPerMinute());
+        System.out.println("Top error messages: " + aggregation.getTopMessages());
+        System.out.println();
+
         // Cross-check correctness
-        if (seqTotal == concTotal) {
-            System.out.println("CORRECT: Both methods produced the same result.");
+        if (seqTotal == concTotal && seqTotal == mappedTotal && seqTotal == rerunTotal) {
+            System.out.println("CORRECT: All methods produced the same result.");
         } else {
             System.out.println("WARNING: Results differ! Sequential=" +
-                    seqTotal + ", Concurrent=" + concTotal);
+                    seqTotal + ", Concurrent=" + concTotal + ", Memory-mapped=" + mappedTotal
+                    + ", Incremental=" + rerunTotal);
         }
 
         System.out.println("-------------------------------------------");
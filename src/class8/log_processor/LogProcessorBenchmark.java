@@ -0,0 +1,115 @@
+package class8.log_processor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Stream;
+
+// ============================================================================
+// LogProcessorBenchmark: repeatable comparison of the LogErrorCounter engines
+//
+// Generates a corpus with LogCorpusGenerator, then for every engine runs the
+// warmup iterations, measures the mean of the measurement iterations with
+// System.nanoTime and reports MB/s and lines/s. Each result is checked
+// against the error count the generator knows. Options are key=value
+// arguments, for example:
+//   files=200 fileKB=1024 lineLength=120 errorRatio=0.05 seed=42 warmups=3 iterations=5
+// Pass dir=<path> to keep the corpus; otherwise it is written to a temp
+// directory and deleted afterwards.
+// ============================================================================
+public class LogProcessorBenchmark {
+
+    interface Engine {
+        long countErrors(List<Path> files) throws Exception;
+    }
+
+    record Result(double seconds, double megabytesPerSecond, double linesPerSecond, long errors) {
+    }
+
+    private final int warmups;
+    private final int iterations;
+
+    public LogProcessorBenchmark(int warmups, int iterations) {
+        this.warmups = warmups;
+        this.iterations = iterations;
+    }
+
+    public Result run(Engine engine, LogCorpusGenerator.Corpus corpus) throws Exception {
+        for (int i = 0; i < warmups; i++) {
+            engine.countErrors(corpus.files());
+        }
+
+        long errors = 0;
+        long totalNanos = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            errors = engine.countErrors(corpus.files());
+            totalNanos += System.nanoTime() - start;
+        }
+        double seconds = totalNanos / 1e9 / iterations;
+        return new Result(seconds, corpus.bytes() / (1024.0 * 1024.0) / seconds, corpus.lines() / seconds, errors);
+    }
+
+    private static Map<String, Engine> engines() {
+        LogClassifier classifier = new LogClassifier(List.of("ERROR"));
+        Map<String, Engine> engines = new LinkedHashMap<>();
+        engines.put("sequential", LogErrorCounter::countErrorsSequential);
+        engines.put("concurrent", LogErrorCounter::countErrorsConcurrent);
+        engines.put("concurrent (task/file)", files -> LogErrorCounter.countErrorsConcurrent(files, 0));
+        engines.put("memory-mapped", LogErrorCounter::countErrorsMapped);
+        engines.put("classifier", files -> LogErrorCounter.classifyConcurrent(files, classifier).get("ERROR"));
+        return engines;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length == 2) {
+                options.put(parts[0], parts[1]);
+            }
+        }
+
+        LogCorpusGenerator generator = new LogCorpusGenerator(
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                Integer.parseInt(options.getOrDefault("files", "200")),
+                Long.parseLong(options.getOrDefault("fileKB", "1024")) * 1024,
+                Integer.parseInt(options.getOrDefault("lineLength", "120")),
+                Double.parseDouble(options.getOrDefault("errorRatio", "0.05")));
+        LogProcessorBenchmark benchmark = new LogProcessorBenchmark(
+                Integer.parseInt(options.getOrDefault("warmups", "3")),
+                Integer.parseInt(options.getOrDefault("iterations", "5")));
+
+        boolean keep = options.containsKey("dir");
+        Path dir = keep ? Paths.get(options.get("dir")) : Files.createTempDirectory("log-corpus");
+        try {
+            LogCorpusGenerator.Corpus corpus = generator.generate(dir);
+            System.out.println(String.format("=== Corpus: %d files, %,d bytes, %,d lines, %,d error lines (%s) ===",
+                    corpus.files().size(), corpus.bytes(), corpus.lines(), corpus.errorLines(), dir));
+            System.out.println(String.format("%-24s | %10s | %10s | %15s | %s",
+                    "engine", "time (ms)", "MB/s", "lines/s", "errors"));
+
+            for (Map.Entry<String, Engine> entry : engines().entrySet()) {
+                Result result = benchmark.run(entry.getValue(), corpus);
+                System.out.println(String.format("%-24s | %10.1f | %10.1f | %,15.0f | %,d%s",
+                        entry.getKey(), result.seconds() * 1000, result.megabytesPerSecond(),
+                        result.linesPerSecond(), result.errors(),
+                        result.errors() == corpus.errorLines() ? "" : "  WARNING: expected " + corpus.errorLines()));
+            }
+        } finally {
+            if (!keep) {
+                deleteRecursively(dir);
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
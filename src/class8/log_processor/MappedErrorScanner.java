@@ -0,0 +1,176 @@
+package class8.log_processor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// ============================================================================
+// MappedErrorScanner: counts lines containing a keyword by scanning raw bytes
+//
+// Every file is cut into chunks of about chunkSize bytes whose boundaries are
+// moved forward to the next '\n', so no line is split between two chunks.
+// Chunks of all files go to one ForkJoinPool and each chunk is memory-mapped
+// and scanned without decoding anything to Strings, so even a single huge
+// file is spread over all cores. Compressed (.gz) files cannot be mapped and
+// go through the CompressedLogReader pipeline instead.
+// ============================================================================
+class MappedErrorScanner {
+
+    // one newline-aligned piece of a file: [start, end)
+    record Chunk(Path file, long start, long end) {
+    }
+
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final byte[] keyword;
+
+    public MappedErrorScanner() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, "ERROR");
+    }
+
+    public MappedErrorScanner(ForkJoinPool pool, int chunkSize, String keyword) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("chunkSize must be > 0");
+        if (keyword == null || keyword.isEmpty())
+            throw new IllegalArgumentException("keyword required");
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.keyword = keyword.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public long countErrors(List<Path> files) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        long compressedTotal = 0;
+        for (Path file : files) {
+            if (CompressedLogReader.isCompressed(file)) {
+                compressedTotal += new CompressedLogReader().countMatchingLines(file, keyword);
+            } else {
+                chunks.addAll(split(file, chunkSize));
+            }
+        }
+        try {
+            return compressedTotal + pool.invoke(new ChunkTask(chunks, 0, chunks.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Splits a file into chunks whose ends fall right after a '\n' (or at end of file)
+    static List<Chunk> split(Path file, int chunkSize) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+            long start = 0;
+            while (start < size) {
+                long end = Math.min(size, start + chunkSize);
+                if (end < size) {
+                    end = nextLineStart(channel, end, size, probe);
+                }
+                chunks.add(new Chunk(file, start, end));
+                start = end;
+            }
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe) throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private long scan(Chunk chunk) {
+        long length = chunk.end() - chunk.start();
+        if (length == 0) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(chunk.file(), StandardOpenOption.READ)) {
+            // a single line longer than 2 GB cannot be mapped in one piece; chunks are far smaller in practice
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), length);
+            return countMatchingLines(buffer, keyword);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Counts lines that contain the keyword at least once; a line's remaining bytes are skipped after a match
+    static long countMatchingLines(ByteBuffer buffer, byte[] keyword) {
+        int limit = buffer.limit();
+        int last = limit - keyword.length;
+        byte first = keyword[0];
+        long count = 0;
+
+        int i = buffer.position();
+        while (i <= last) {
+            byte b = buffer.get(i);
+            if (b == first && matchesAt(buffer, i, keyword)) {
+                count++;
+                // jump to the start of the next line
+                i += keyword.length;
+                while (i < limit && buffer.get(i) != '\n') {
+                    i++;
+                }
+            }
+            i++;
+        }
+        return count;
+    }
+
+    private static boolean matchesAt(ByteBuffer buffer, int index, byte[] keyword) {
+        for (int k = 1; k < keyword.length; k++) {
+            if (buffer.get(index + k) != keyword[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class ChunkTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Chunk> chunks; // tasks are never serialized
+        private final int from;
+        private final int to;
+
+        ChunkTask(List<Chunk> chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= 1) {
+                return from < to ? scan(chunks.get(from)) : 0L;
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(chunks, from, mid);
+            left.fork();
+            long right = new ChunkTask(chunks, mid, to).compute();
+            return left.join() + right;
+        }
+    }
+}
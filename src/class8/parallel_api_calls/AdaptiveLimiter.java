@@ -0,0 +1,106 @@
+package class8.parallel_api_calls;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ============================================================================
+// AdaptiveLimiter: AIMD limit on the number of requests in flight
+//
+//  - success while the limit is in use  -> limit += 1 / limit (about +1 per round trip)
+//  - throttled (429 / 503)               -> limit *= backoffRatio
+// Requests started before the last decrease do not decrease it again, so a
+// burst of 429s from one overloaded window halves the limit once, not once
+// per failed request.
+// ============================================================================
+class AdaptiveLimiter {
+
+    // handed out by acquire() and given back to exactly one of the on*() methods
+    record Permit(long epoch) {
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+    private long epoch; // bumped on every decrease
+
+    public AdaptiveLimiter() {
+        this(10, 1, 500, 0.5);
+    }
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit)
+            throw new IllegalArgumentException("require 0 < minLimit <= initialLimit <= maxLimit");
+        if (backoffRatio <= 0 || backoffRatio >= 1)
+            throw new IllegalArgumentException("backoffRatio must be in (0, 1)");
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+    }
+
+    public Permit acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                released.await();
+            }
+            inFlight++;
+            return new Permit(epoch);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess(Permit permit) {
+        lock.lock();
+        try {
+            // only grow while the limit is what holds callers back, not while idle
+            if (inFlight >= (int) limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onDropped(Permit permit) {
+        lock.lock();
+        try {
+            if (permit.epoch() == epoch) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                epoch++;
+            }
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the request failed for a reason that says nothing about capacity
+    public void onIgnored(Permit permit) {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
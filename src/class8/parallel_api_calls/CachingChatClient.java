@@ -0,0 +1,215 @@
+package class8.parallel_api_calls;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+// ============================================================================
+// CachingChatClient: content-addressed answer cache in front of any
+// ChatCompletion
+//
+//   key = SHA-256(model \0 system prompt \0 user prompt)
+//
+//   memory LRU (maxEntriesInMemory) -> directory of <key> files -> delegate
+//
+// Disk entries are "expiresAtMillis\n" followed by the answer, written to a
+// temp file and moved into place, so they survive restarts and a crash never
+// leaves half an entry. Identical prompts asked while one is being answered
+// wait for that answer instead of sending their own request; if the caller
+// they wait for is interrupted, they try again themselves. Failures and
+// responses without content are not cached, and a failed disk write only
+// costs the disk copy: the answer is still returned and kept in memory.
+// ============================================================================
+class CachingChatClient implements ChatCompletion {
+
+    private record Entry(String content, long expiresAtMillis) {
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+
+    private final ChatCompletion delegate;
+    private final String model;
+    private final Path directory;
+    private final long ttlMillis;
+    private final Map<String, Entry> memory;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public CachingChatClient(ChatCompletion delegate, String model, Path directory, int maxEntriesInMemory, Duration ttl)
+            throws IOException {
+        if (maxEntriesInMemory <= 0)
+            throw new IllegalArgumentException("maxEntriesInMemory must be > 0");
+        this.delegate = delegate;
+        this.model = model;
+        this.directory = Files.createDirectories(directory);
+        this.ttlMillis = ttl.toMillis();
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntriesInMemory;
+            }
+        };
+    }
+
+    @Override
+    public String complete(String prompt) throws IOException, InterruptedException {
+        String key = key(model, ChatClient.SYSTEM_PROMPT, prompt);
+        while (true) {
+            String cached = lookup(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            CompletableFuture<String> mine = new CompletableFuture<>();
+            CompletableFuture<String> existing = inFlight.putIfAbsent(key, mine);
+            if (existing == null) {
+                return load(key, prompt, mine);
+            }
+            coalesced.increment();
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof InterruptedException)) {
+                    throw rethrow(e.getCause());
+                }
+                // the caller we waited for was interrupted, not this one: ask again
+                inFlight.remove(key, existing);
+            }
+        }
+    }
+
+    private String load(String key, String prompt, CompletableFuture<String> mine)
+            throws IOException, InterruptedException {
+        String cached;
+        try {
+            cached = lookup(key); // answered between the first lookup and putIfAbsent
+            if (cached == null) {
+                misses.increment();
+                cached = delegate.complete(prompt);
+                if (cached != null) {
+                    store(key, cached);
+                }
+            }
+            mine.complete(cached);
+            return cached;
+        } catch (Throwable e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private String lookup(String key) throws IOException {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (memory) {
+            entry = memory.get(key);
+            if (entry != null && entry.isExpired(now)) {
+                memory.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            memoryHits.increment();
+            return entry.content();
+        }
+
+        entry = read(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(now)) {
+            Files.deleteIfExists(directory.resolve(key));
+            return null;
+        }
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        diskHits.increment();
+        return entry.content();
+    }
+
+    private Entry read(String key) throws IOException {
+        String text;
+        try {
+            text = Files.readString(directory.resolve(key), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        int newline = text.indexOf('\n');
+        try {
+            return new Entry(text.substring(newline + 1), Long.parseLong(text.substring(0, newline)));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            return null; // not written by this class; overwritten on the next store
+        }
+    }
+
+    private void store(String key, String content) {
+        Entry entry = new Entry(content, System.currentTimeMillis() + ttlMillis);
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, key, ".tmp");
+            Files.writeString(temp, entry.expiresAtMillis() + "\n" + content, StandardCharsets.UTF_8);
+            Files.move(temp, directory.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Could not cache answer on disk: " + e.getMessage());
+            try {
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // The owner's failure, as thrown by complete()
+    private static IOException rethrow(Throwable cause) {
+        if (cause instanceof IOException io) {
+            return io;
+        }
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+    static String key(String model, String systemPrompt, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{model, systemPrompt, prompt}) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every JVM", e);
+        }
+    }
+
+    public String stats() {
+        return String.format("memoryHits=%d, diskHits=%d, misses=%d, coalesced=%d",
+                memoryHits.sum(), diskHits.sum(), misses.sum(), coalesced.sum());
+    }
+}
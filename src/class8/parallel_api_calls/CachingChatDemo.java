@@ -0,0 +1,55 @@
+package class8.parallel_api_calls;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// ============================================================================
+// CachingChatDemo: response cache against a StubChatServer
+//
+//   round 1: 5 distinct prompts x 40 concurrent copies -> 5 requests (coalesced)
+//   round 2: same prompts                                -> memory hits
+//   restart: new client on the same directory            -> disk hits
+// ============================================================================
+public class CachingChatDemo {
+
+    public static void main(String[] args) throws Exception {
+        List<String> prompts = new ArrayList<>();
+        for (int copy = 0; copy < 40; copy++) {
+            for (int i = 0; i < 5; i++) {
+                prompts.add("Question " + i);
+            }
+        }
+
+        Path directory = Files.createTempDirectory("chat-response-cache");
+        try (StubChatServer server = new StubChatServer(Duration.ofMillis(200))) {
+            ChatClient client = new ChatClient(server.uri(), "stub-key");
+
+            CachingChatClient cached = new CachingChatClient(client, client.getModel(), directory, 100, Duration.ofHours(1));
+            for (int round = 1; round <= 2; round++) {
+                long start = System.currentTimeMillis();
+                List<String> results = Main.runParallel(cached, prompts);
+                System.out.println("Round " + round + ": " + (System.currentTimeMillis() - start) + " ms, "
+                        + results.size() + " answers, stub requests so far: " + server.getRequestCount());
+            }
+            System.out.println("Cache: " + cached.stats());
+
+            CachingChatClient restarted = new CachingChatClient(client, client.getModel(), directory, 100, Duration.ofHours(1));
+            long start = System.currentTimeMillis();
+            List<String> results = Main.runParallel(restarted, prompts);
+            System.out.println("After restart: " + (System.currentTimeMillis() - start) + " ms, "
+                    + results.size() + " answers, stub requests so far: " + server.getRequestCount());
+            System.out.println("Cache: " + restarted.stats());
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+}
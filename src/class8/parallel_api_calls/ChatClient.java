@@ -0,0 +1,172 @@
+package class8.parallel_api_calls;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+
+// ============================================================================
+// ChatClient: chat-completions client on java.net.http.HttpClient
+//
+// One HttpClient is shared by all requests. It negotiates HTTP/2 where the
+// server supports it, so many requests are multiplexed over one connection,
+// and otherwise keeps a pool of reused HTTP/1.1 keep-alive connections.
+// complete() blocks and is meant for virtual threads; completeAsync() never
+// blocks a thread while waiting for the response.
+// ============================================================================
+class ChatClient implements ChatCompletion {
+
+    public static final String DEFAULT_MODEL = "gpt-4o-mini";
+    public static final String SYSTEM_PROMPT = "You are a helpful assistant that answers questions about "
+            + "multithreading concepts in Java. Please use always max one paragraph.";
+
+    private final HttpClient http;
+    private final URI endpoint;
+    private final String apiKey;
+    private final String model;
+    private final Duration timeout;
+
+    public ChatClient(URI endpoint, String apiKey) {
+        this(endpoint, apiKey, DEFAULT_MODEL, Duration.ofSeconds(30));
+    }
+
+    public ChatClient(URI endpoint, String apiKey, String model, Duration timeout) {
+        this.endpoint = endpoint;
+        this.apiKey = apiKey;
+        this.model = model;
+        this.timeout = timeout;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    // The body is parsed while it arrives, never held as one String
+    @Override
+    public String complete(String prompt) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = http.send(request(prompt), HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw failure(response, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            return ChatResponseParser.firstContent(body, response.headers().firstValueAsLong("Content-Length").orElse(-1));
+        }
+    }
+
+    // Completes with the content, or exceptionally with a ChatException for non-2xx answers;
+    // the body is collected as bytes so no HttpClient thread blocks on reading a stream.
+    // Cancelling the returned future aborts the HTTP exchange.
+    public CompletableFuture<String> completeAsync(String prompt) {
+        CompletableFuture<HttpResponse<byte[]>> exchange =
+                http.sendAsync(request(prompt), HttpResponse.BodyHandlers.ofByteArray());
+        CompletableFuture<String> content = exchange
+                .thenApply(response -> {
+                    try {
+                        if (response.statusCode() / 100 != 2) {
+                            throw failure(response, new String(response.body(), StandardCharsets.UTF_8));
+                        }
+                        return ChatResponseParser.firstContent(response.body());
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+        content.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                exchange.cancel(true);
+            }
+        });
+        return content;
+    }
+
+    // Streams the answer as server-sent events; tokens reach the subscriber while the model writes them
+    public Flow.Publisher<String> stream(String prompt) {
+        // the timeout covers the wait for the response headers, not the whole (long) stream
+        return new SseTokenPublisher(http, HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody(model, prompt, true)))
+                .build());
+    }
+
+    HttpRequest request(String prompt) {
+        return HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody(model, prompt, false)))
+                .build();
+    }
+
+    private static ChatException failure(HttpResponse<?> response, String body) {
+        return new ChatException(response.statusCode(), body,
+                response.headers().firstValue("Retry-After").map(ChatClient::parseRetryAfter).orElse(null));
+    }
+
+    // Retry-After is either delta-seconds or an HTTP date; null if it is neither
+    static Duration parseRetryAfter(String value) {
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration delay = Duration.between(ZonedDateTime.now(at.getZone()), at);
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    static String requestBody(String model, String prompt, boolean stream) {
+        return """
+                {
+                  "model": "%s",
+                  "stream": %s,
+                  "messages": [
+                    { "role": "system", "content": "%s" },
+                    { "role": "user", "content": "%s" }
+                  ]
+                }
+                """.formatted(escape(model), stream, escape(SYSTEM_PROMPT), escape(prompt));
+    }
+
+    // JSON string escaping (the old body only swapped '"' for '\'' and broke on newlines)
+    static String escape(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,12 @@
+package class8.parallel_api_calls;
+
+import java.io.IOException;
+
+// ============================================================================
+// ChatCompletion: anything that turns a user prompt into the assistant's
+// answer, so throttling and caching can be stacked in front of ChatClient
+// ============================================================================
+interface ChatCompletion {
+
+    String complete(String prompt) throws IOException, InterruptedException;
+}
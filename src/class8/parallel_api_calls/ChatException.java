@@ -0,0 +1,39 @@
+package class8.parallel_api_calls;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+// ============================================================================
+// ChatException: the endpoint answered with a non-2xx status
+// ============================================================================
+class ChatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final String body;
+    private final Duration retryAfter;
+
+    public ChatException(int statusCode, String body) {
+        this(statusCode, body, null);
+    }
+
+    public ChatException(int statusCode, String body, Duration retryAfter) {
+        super("HTTP " + statusCode + ": " + body);
+        this.statusCode = statusCode;
+        this.body = body;
+        this.retryAfter = retryAfter;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Optional<Duration> getRetryAfter() {
+        return Optional.ofNullable(retryAfter);
+    }
+}
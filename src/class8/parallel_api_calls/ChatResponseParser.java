@@ -0,0 +1,94 @@
+package class8.parallel_api_calls;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// ============================================================================
+// ChatResponseParser: pulls choices[].message.content out of a
+// chat-completions response with a JsonReader, straight from the body stream
+//
+// Every other field is skipped without being decoded. Escapes, including
+// \\uXXXX and surrogate pairs, are unescaped properly (the old indexOf-based
+// extractContent stopped at the first escaped quote).
+// ============================================================================
+class ChatResponseParser {
+
+    private ChatResponseParser() {
+    }
+
+    // message.content of every choice in order; null for a choice without text content
+    public static List<String> contents(InputStream in) throws IOException {
+        return contents(new JsonReader(in));
+    }
+
+    public static List<String> contents(JsonReader reader) throws IOException {
+        List<String> contents = new ArrayList<>(1);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextNameIs("choices")) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    contents.add(readChoice(reader));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        reader.peek(); // only whitespace may follow
+        return contents;
+    }
+
+    public static String firstContent(InputStream in) throws IOException {
+        return first(contents(in));
+    }
+
+    // lengthHint (e.g. Content-Length, <= 0 = unknown) sizes the read buffer to the body
+    public static String firstContent(InputStream in, long lengthHint) throws IOException {
+        return first(contents(new JsonReader(in, JsonReader.bufferSize(lengthHint))));
+    }
+
+    public static String firstContent(byte[] json) throws IOException {
+        return first(contents(new JsonReader(json)));
+    }
+
+    public static String firstContent(String json) throws IOException {
+        return firstContent(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String first(List<String> contents) {
+        return contents.isEmpty() ? null : contents.get(0);
+    }
+
+    private static String readChoice(JsonReader reader) throws IOException {
+        String content = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextNameIs("message")) {
+                content = readMessage(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return content;
+    }
+
+    private static String readMessage(JsonReader reader) throws IOException {
+        String content = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextNameIs("content") && reader.peek() == JsonReader.Token.STRING) {
+                content = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return content;
+    }
+}
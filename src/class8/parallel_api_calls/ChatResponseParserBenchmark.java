@@ -0,0 +1,131 @@
+package class8.parallel_api_calls;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+// ============================================================================
+// ChatResponseParserBenchmark: ChatResponseParser vs the old indexOf-based
+// extractContent on a realistic chat-completions response
+//
+// Checks correctness on escapes first, then reports responses/s, MB/s and
+// bytes allocated per response. Options: args[0] = measured seconds (default 3).
+// ============================================================================
+public class ChatResponseParserBenchmark {
+
+    private static final String CONTENT = "A \"thread\" is the smallest unit of execution.\n"
+            + "In Java: new Thread(() -> {...}).start(); \\ caf\u00e9 \u2013 \ud83d\ude80 "
+            + "Threads share the heap but each has its own stack. ".repeat(12);
+
+    // what the old code did, kept only for comparison
+    static String legacyExtractContent(String json) {
+        String messageMarker = "\"message\":";
+        int messageIndex = json.indexOf(messageMarker);
+        if (messageIndex == -1) return null;
+        String contentMarker = "\"content\":";
+        int contentIndex = json.indexOf(contentMarker, messageIndex);
+        if (contentIndex == -1) return null;
+        int startQuote = json.indexOf("\"", contentIndex + contentMarker.length());
+        if (startQuote == -1) return null;
+        int endQuote = json.indexOf("\"", startQuote + 1);
+        if (endQuote == -1) return null;
+        String result = json.substring(startQuote + 1, endQuote);
+        return result.replace("\\n", "\n").replace("\\\"", "\"");
+    }
+
+    static String response(String content) {
+        return """
+                {
+                  "id": "chatcmpl-9x8y7z",
+                  "object": "chat.completion",
+                  "created": 1736676000,
+                  "model": "gpt-4o-mini-2024-07-18",
+                  "choices": [
+                    {
+                      "index": 0,
+                      "message": {
+                        "role": "assistant",
+                        "content": "%s",
+                        "refusal": null
+                      },
+                      "logprobs": null,
+                      "finish_reason": "stop"
+                    }
+                  ],
+                  "usage": {"prompt_tokens": 42, "completion_tokens": 180, "total_tokens": 222,
+                            "prompt_tokens_details": {"cached_tokens": 0, "audio_tokens": 0}},
+                  "system_fingerprint": "fp_0ba0d124f1"
+                }
+                """.formatted(escapeAscii(content));
+    }
+
+    // like the API: non-ASCII as \\uXXXX escapes
+    private static String escapeAscii(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : ChatClient.escape(text).toCharArray()) {
+            if (c < 0x80) {
+                sb.append(c);
+            } else {
+                sb.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 3;
+
+        String json = response(CONTENT);
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        // raw UTF-8 (unescaped non-ASCII), long enough to cross the reader's buffer boundary
+        String longContent = CONTENT.repeat(20);
+        byte[] rawUtf8 = response(longContent).replace(escapeAscii(longContent), ChatClient.escape(longContent))
+                .getBytes(StandardCharsets.UTF_8);
+
+        System.out.println("Correct (\\u escapes): " + CONTENT.equals(ChatResponseParser.firstContent(bytes)));
+        System.out.println("Correct (raw UTF-8):  " + longContent.equals(ChatResponseParser.firstContent(rawUtf8)));
+        System.out.println("Legacy correct:       " + CONTENT.equals(legacyExtractContent(json))
+                + " (legacy returned \"" + legacyExtractContent(json) + "\")");
+        System.out.println("Response size: " + bytes.length + " bytes");
+
+        run("parser (stream)", seconds, () -> ChatResponseParser.firstContent(new ByteArrayInputStream(bytes)), bytes.length);
+        run("parser (byte[])", seconds, () -> ChatResponseParser.firstContent(bytes), bytes.length);
+        // the legacy path also had to decode the body into a String first; it is fast because it stops
+        // at the first escaped quote, i.e. after a few bytes of the content
+        run("legacy indexOf", seconds, () -> legacyExtractContent(new String(bytes, StandardCharsets.UTF_8)), bytes.length);
+    }
+
+    interface Parse {
+        String parse() throws IOException;
+    }
+
+    private static void run(String name, long seconds, Parse parse, int size) throws IOException {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long sink = 0;
+        long warmupEnd = System.nanoTime() + 1_000_000_000L;
+        while (System.nanoTime() < warmupEnd) {
+            sink += parse.parse().length();
+        }
+
+        long operations = 0;
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < 1000; i++) {
+                sink += parse.parse().length();
+            }
+            operations += 1000;
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.println(String.format("%-17s %,12.0f responses/s  %8.1f MB/s  %8.0f B/op   (%d)",
+                name, operations / elapsed, operations * (double) size / elapsed / (1024 * 1024),
+                (double) allocated / operations, sink % 10));
+    }
+}
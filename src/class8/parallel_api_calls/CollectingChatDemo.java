@@ -0,0 +1,64 @@
+package class8.parallel_api_calls;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+// ============================================================================
+// CollectingChatDemo: completion-order collection against a StubChatServer
+// where some answers take far longer than the rest
+//
+// Results are printed as they arrive; stragglers are cancelled at their own
+// deadline, so the run ends about requestTimeout after the last start instead
+// of waiting for the slowest answer. Options are key=value arguments:
+//   prompts=100 latencyMs=100 tailRatio=0.05 tailMs=5000 timeoutMs=1000
+// ============================================================================
+public class CollectingChatDemo {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length == 2) {
+                options.put(parts[0], parts[1]);
+            }
+        }
+        int promptCount = Integer.parseInt(options.getOrDefault("prompts", "100"));
+        long latencyMs = Long.parseLong(options.getOrDefault("latencyMs", "100"));
+        double tailRatio = Double.parseDouble(options.getOrDefault("tailRatio", "0.05"));
+        long tailMs = Long.parseLong(options.getOrDefault("tailMs", "5000"));
+        long timeoutMs = Long.parseLong(options.getOrDefault("timeoutMs", "1000"));
+
+        List<String> prompts = new ArrayList<>();
+        for (int i = 0; i < promptCount; i++) {
+            prompts.add("Question " + i);
+        }
+
+        try (StubChatServer server = new StubChatServer(Duration.ofMillis(latencyMs), tailRatio, Duration.ofMillis(tailMs));
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ChatClient client = new ChatClient(server.uri(), "stub-key");
+            System.out.println("Stub: " + latencyMs + " ms, " + (int) (tailRatio * 100) + "% take " + tailMs
+                    + " ms; deadline " + timeoutMs + " ms per request");
+            System.out.println("======================================");
+
+            long start = System.currentTimeMillis();
+            List<PromptResult> results = Main.runCollected(client, prompts, executor,
+                    Duration.ofMillis(timeoutMs), Duration.ofMillis(timeoutMs * 3), result -> {
+                        if (!result.isOk() || result.index() < 3) {
+                            System.out.println("  +" + (System.currentTimeMillis() - start) + " ms  #" + result.index()
+                                    + " " + result.status() + (result.isOk() ? ": " + result.content() : ""));
+                        }
+                    });
+            long millis = System.currentTimeMillis() - start;
+
+            Map<PromptResult.Status, Long> byStatus = results.stream()
+                    .collect(Collectors.groupingBy(PromptResult::status, TreeMap::new, Collectors.counting()));
+            long slowestOk = results.stream().filter(PromptResult::isOk)
+                    .mapToLong(r -> r.latency().toMillis()).max().orElse(0);
+            System.out.println("End to end: " + millis + " ms; slowest successful call: " + slowestOk + " ms");
+            System.out.println("Status: " + byStatus);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package class8.parallel_api_calls;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// ============================================================================
+// HedgingChatClient: duplicates a request that is slower than usual and
+// takes whichever answer arrives first
+//
+// The hedge delay is the hedgePercentile (e.g. p95) of recent successful
+// attempts in a LatencyTracker. No hedging happens until minSamples are known.
+// Hedges are paid from a budget that every request tops up by budgetRatio
+// and that holds at most MAX_HEDGE_BURST hedges, so a slow endpoint sees at
+// most (1 + budgetRatio) times the recent load plus a small burst, however
+// long the client was fast before. The losing attempt is cancelled, which
+// aborts its HTTP exchange.
+//
+// Only primary attempts feed the tracker. A primary that a hedge beat is
+// recorded with the time it had run when it was cancelled: a lower bound,
+// but without it the tracker would only see the fast part of the
+// distribution and the hedge delay would drift towards the median. The
+// delay is recomputed every RECOMPUTE_EVERY samples, not on every request.
+// ============================================================================
+class HedgingChatClient implements ChatCompletion {
+
+    private static final long HEDGE_COST = 1_000; // budget is kept in thousandths of a hedge
+    private static final int MAX_HEDGE_BURST = 10;
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private record HedgeDelay(Duration delay, long atSample) {
+    }
+
+    private final ChatClient client;
+    private final LatencyTracker tracker;
+    private final double hedgePercentile;
+    private final int minSamples;
+    private final long budgetPerRequest;
+    private final AtomicLong budget = new AtomicLong();
+    private volatile HedgeDelay hedgeDelay;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    public HedgingChatClient(ChatClient client) {
+        this(client, new LatencyTracker(1_000), 0.95, 20, 0.1);
+    }
+
+    public HedgingChatClient(ChatClient client, LatencyTracker tracker, double hedgePercentile,
+                             int minSamples, double budgetRatio) {
+        if (budgetRatio < 0)
+            throw new IllegalArgumentException("budgetRatio must be >= 0");
+        this.client = client;
+        this.tracker = tracker;
+        this.hedgePercentile = hedgePercentile;
+        this.minSamples = minSamples;
+        this.budgetPerRequest = Math.round(budgetRatio * HEDGE_COST);
+    }
+
+    @Override
+    public String complete(String prompt) throws IOException, InterruptedException {
+        requests.increment();
+        budget.accumulateAndGet(budgetPerRequest,
+                (current, earned) -> Math.min(MAX_HEDGE_BURST * HEDGE_COST, current + earned));
+        CompletableFuture<String> primary = attempt(prompt, true);
+        CompletableFuture<String> hedge = null;
+        try {
+            Duration delay = hedgeDelay();
+            if (delay == null) {
+                return await(primary);
+            }
+            try {
+                return primary.get(delay.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (!tryTakeBudget()) {
+                    return await(primary);
+                }
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+
+            hedge = attempt(prompt, false);
+            CompletableFuture<String> winner = new CompletableFuture<>();
+            AtomicInteger failures = new AtomicInteger();
+            primary.whenComplete((content, error) -> settle(winner, failures, content, error));
+            hedge.whenComplete((content, error) -> {
+                if (settle(winner, failures, content, error)) {
+                    hedgeWins.increment();
+                }
+            });
+            return await(winner);
+        } finally {
+            // no-ops for the attempt that already answered
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    private CompletableFuture<String> attempt(String prompt, boolean primary) {
+        CompletableFuture<String> future = client.completeAsync(prompt);
+        if (primary) {
+            long start = System.nanoTime();
+            future.whenComplete((content, error) -> {
+                if (error == null || error instanceof CancellationException) {
+                    tracker.record(Duration.ofNanos(System.nanoTime() - start));
+                }
+            });
+        }
+        return future;
+    }
+
+    // null until minSamples are known; concurrent recomputes are harmless, the last one wins
+    private Duration hedgeDelay() {
+        if (tracker.size() < minSamples) {
+            return null;
+        }
+        long recorded = tracker.recorded();
+        HedgeDelay cached = hedgeDelay;
+        if (cached == null || recorded - cached.atSample() >= RECOMPUTE_EVERY) {
+            cached = new HedgeDelay(tracker.percentile(hedgePercentile), recorded);
+            hedgeDelay = cached;
+        }
+        return cached.delay();
+    }
+
+    // Compare-and-set, so concurrent callers cannot all spend the same hedge
+    private boolean tryTakeBudget() {
+        while (true) {
+            long current = budget.get();
+            if (current < HEDGE_COST) {
+                return false;
+            }
+            if (budget.compareAndSet(current, current - HEDGE_COST)) {
+                hedges.increment();
+                return true;
+            }
+        }
+    }
+
+    // The first successful attempt wins; the winner fails only when both attempts failed.
+    // Returns whether this attempt's answer was the one used.
+    private static boolean settle(CompletableFuture<String> winner, AtomicInteger failures, String content, Throwable error) {
+        if (error == null) {
+            return winner.complete(content);
+        }
+        if (failures.incrementAndGet() == 2) {
+            winner.completeExceptionally(error);
+        }
+        return false;
+    }
+
+    private static String await(CompletableFuture<String> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+        if (cause instanceof IOException io) {
+            return io;
+        }
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        return new IOException(cause);
+    }
+
+    public String stats() {
+        return String.format("requests=%d, hedges=%d, hedgeWins=%d, hedgeDelay=%s",
+                requests.sum(), hedges.sum(), hedgeWins.sum(), tracker.percentile(hedgePercentile));
+    }
+}
@@ -0,0 +1,73 @@
+package class8.parallel_api_calls;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// ============================================================================
+// HedgingChatDemo: latency percentiles with and without hedging against a
+// StubChatServer that injects tail delays
+//
+// Prompts run through runCollected on a small pool so requests overlap but
+// do not all start at once. Options are key=value arguments:
+//   prompts=400 threads=16 latencyMs=50 tailRatio=0.03 tailMs=1000
+// ============================================================================
+public class HedgingChatDemo {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length == 2) {
+                options.put(parts[0], parts[1]);
+            }
+        }
+        int promptCount = Integer.parseInt(options.getOrDefault("prompts", "400"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        long latencyMs = Long.parseLong(options.getOrDefault("latencyMs", "50"));
+        double tailRatio = Double.parseDouble(options.getOrDefault("tailRatio", "0.03"));
+        long tailMs = Long.parseLong(options.getOrDefault("tailMs", "1000"));
+
+        List<String> prompts = new ArrayList<>();
+        for (int i = 0; i < promptCount; i++) {
+            prompts.add("Question " + i);
+        }
+
+        try (StubChatServer server = new StubChatServer(Duration.ofMillis(latencyMs), tailRatio, Duration.ofMillis(tailMs))) {
+            ChatClient client = new ChatClient(server.uri(), "stub-key");
+            System.out.println("Stub: " + latencyMs + " ms, " + tailRatio * 100 + "% take " + tailMs + " ms; "
+                    + promptCount + " prompts on " + threads + " threads");
+            System.out.println("======================================");
+
+            run("Plain", client, prompts, threads);
+            int before = server.getRequestCount();
+            HedgingChatClient hedging = new HedgingChatClient(client);
+            run("Hedged (p95, 10% budget)", hedging, prompts, threads);
+            System.out.println("  " + hedging.stats() + ", stub requests: " + (server.getRequestCount() - before));
+        }
+    }
+
+    private static void run(String name, ChatCompletion client, List<String> prompts, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.currentTimeMillis();
+            List<PromptResult> results = Main.runCollected(client, prompts, executor,
+                    Duration.ofSeconds(30), null, result -> { });
+            long millis = System.currentTimeMillis() - start;
+
+            long[] latencies = results.stream().filter(PromptResult::isOk)
+                    .mapToLong(r -> r.latency().toMillis()).sorted().toArray();
+            System.out.println(String.format("%-26s %5d ms total  p50=%4d ms  p95=%4d ms  p99=%4d ms  max=%4d ms  (%d ok)",
+                    name, millis, percentile(latencies, 0.50), percentile(latencies, 0.95),
+                    percentile(latencies, 0.99), latencies.length == 0 ? 0 : latencies[latencies.length - 1],
+                    latencies.length));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long percentile(long[] sorted, double q) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.ceil(q * sorted.length) - 1];
+    }
+}
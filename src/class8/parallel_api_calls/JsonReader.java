@@ -0,0 +1,424 @@
+package class8.parallel_api_calls;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// ============================================================================
+// JsonReader: minimal pull tokenizer over a UTF-8 InputStream
+//
+// Reads through one byte buffer and decodes strings into one reusable char
+// buffer. Both are sized from the input rather than fixed: the byte buffer
+// from the expected length (at most 8 KB; none at all for a byte[] input),
+// and the char buffer grows straight to the bytes left before the closing
+// quote, so a long string costs one growth when it is buffered. Apart from those,
+// walking a document allocates only the Strings the caller asks for
+// (nextName / nextString). nextNameIs() compares a name without creating a
+// String, and skipValue() skips whole subtrees without decoding them. The
+// syntax is checked only as far as the walk needs it.
+// ============================================================================
+class JsonReader {
+
+    enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT }
+
+    // what the enclosing container expects next
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private static final int MIN_BUFFER_SIZE = 256;
+    private static final int MAX_BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int pos;
+    private int limit;
+    private long consumed; // bytes before buffer[0], for error messages
+
+    private char[] chars = new char[64]; // names are short; long values grow it from the input size
+    private int length;
+
+    private int[] stack = new int[8];
+    private int depth;
+    private Token peeked;
+
+    // Sizes the buffer from in.available(), e.g. the whole of a ByteArrayInputStream
+    public JsonReader(InputStream in) throws IOException {
+        this(in, bufferSize(in.available()));
+    }
+
+    public JsonReader(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buffer = new byte[bufferSize];
+        stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    // Reads the array in place, without copying it into a buffer of its own
+    public JsonReader(byte[] json) {
+        this.in = null;
+        this.buffer = json;
+        this.limit = json.length;
+        stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    // Buffer size for a document of about expectedLength bytes (<= 0 = unknown)
+    static int bufferSize(long expectedLength) {
+        if (expectedLength <= 0) {
+            return MAX_BUFFER_SIZE;
+        }
+        return (int) Math.max(MIN_BUFFER_SIZE, Math.min(MAX_BUFFER_SIZE, expectedLength + 1)); // +1 sees EOF in one read
+    }
+
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int c;
+        switch (stack[depth - 1]) {
+            case EMPTY_ARRAY -> {
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c == -1) {
+                    throw syntaxError("unterminated array");
+                }
+                pos--;
+            }
+            case NONEMPTY_ARRAY -> {
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("expected ',' or ']'");
+                }
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (stack[depth - 1] == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("expected a name");
+                }
+                stack[depth - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            }
+            case DANGLING_NAME -> {
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("expected ':'");
+                }
+            }
+            case EMPTY_DOCUMENT -> stack[depth - 1] = NONEMPTY_DOCUMENT;
+            default -> { // NONEMPTY_DOCUMENT
+                if (nextNonWhitespace() != -1) {
+                    throw syntaxError("expected end of document");
+                }
+                return peeked = Token.END_DOCUMENT;
+            }
+        }
+
+        c = nextNonWhitespace();
+        switch (c) {
+            case '{' -> peeked = Token.BEGIN_OBJECT;
+            case '[' -> peeked = Token.BEGIN_ARRAY;
+            case '"' -> peeked = Token.STRING;
+            case 't', 'f' -> {
+                pos--;
+                peeked = Token.BOOLEAN;
+            }
+            case 'n' -> {
+                pos--;
+                peeked = Token.NULL;
+            }
+            default -> {
+                if (c != '-' && (c < '0' || c > '9')) {
+                    throw syntaxError("unexpected character");
+                }
+                pos--;
+                peeked = Token.NUMBER;
+            }
+        }
+        return peeked;
+    }
+
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        readString();
+        return new String(chars, 0, length);
+    }
+
+    // Consumes the next name and reports whether it equals the argument, without creating a String
+    public boolean nextNameIs(String name) throws IOException {
+        expect(Token.NAME);
+        readString();
+        if (length != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String nextString() throws IOException {
+        expect(Token.STRING);
+        readString();
+        return new String(chars, 0, length);
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        boolean value = buffer[pos] == 't';
+        skipLiteral();
+        return value;
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        skipLiteral();
+    }
+
+    // Skips the next value, including everything nested in it
+    public void skipValue() throws IOException {
+        int open = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    open++;
+                }
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    open++;
+                }
+                case END_OBJECT -> {
+                    endObject();
+                    open--;
+                }
+                case END_ARRAY -> {
+                    endArray();
+                    open--;
+                }
+                case NAME, STRING -> {
+                    peeked = null;
+                    skipString();
+                }
+                case NUMBER, BOOLEAN, NULL -> {
+                    peeked = null;
+                    skipLiteral();
+                }
+                case END_DOCUMENT -> throw syntaxError("unexpected end of document");
+            }
+        } while (open > 0);
+    }
+
+    private void expect(Token token) throws IOException {
+        if (peek() != token) {
+            throw syntaxError("expected " + token + " but was " + peeked);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (depth == stack.length) {
+            int[] bigger = new int[depth * 2];
+            System.arraycopy(stack, 0, bigger, 0, depth);
+            stack = bigger;
+        }
+        stack[depth++] = scope;
+    }
+
+    // ------------------------------------------------------------------------
+    // bytes
+    // ------------------------------------------------------------------------
+
+    private int nextByte() throws IOException {
+        if (pos == limit) {
+            if (in == null) {
+                return -1;
+            }
+            consumed += limit;
+            pos = 0;
+            limit = Math.max(0, in.read(buffer, 0, buffer.length));
+            if (limit == 0) {
+                return -1;
+            }
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = nextByte();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private int requireByte() throws IOException {
+        int c = nextByte();
+        if (c == -1) {
+            throw syntaxError("unterminated string");
+        }
+        return c;
+    }
+
+    // Decodes the string body after the opening quote into chars[0, length)
+    private void readString() throws IOException {
+        length = 0;
+        while (true) {
+            // fast path: plain ASCII still in the buffer
+            while (pos < limit) {
+                int c = buffer[pos] & 0xFF;
+                if (c == '"' || c == '\\' || c >= 0x80) {
+                    break;
+                }
+                append((char) c);
+                pos++;
+            }
+            int c = requireByte();
+            if (c == '"') {
+                return;
+            } else if (c == '\\') {
+                readEscape();
+            } else if (c < 0x80) {
+                append((char) c);
+            } else if ((c & 0xE0) == 0xC0) {
+                append((char) (((c & 0x1F) << 6) | continuation()));
+            } else if ((c & 0xF0) == 0xE0) {
+                append((char) (((c & 0x0F) << 12) | (continuation() << 6) | continuation()));
+            } else if ((c & 0xF8) == 0xF0) {
+                int codePoint = ((c & 0x07) << 18) | (continuation() << 12) | (continuation() << 6) | continuation();
+                append(Character.highSurrogate(codePoint));
+                append(Character.lowSurrogate(codePoint));
+            } else {
+                throw syntaxError("invalid UTF-8");
+            }
+        }
+    }
+
+    private int continuation() throws IOException {
+        int c = requireByte();
+        if ((c & 0xC0) != 0x80) {
+            throw syntaxError("invalid UTF-8");
+        }
+        return c & 0x3F;
+    }
+
+    private void readEscape() throws IOException {
+        int c = requireByte();
+        switch (c) {
+            case '"', '\\', '/' -> append((char) c);
+            case 'b' -> append('\b');
+            case 'f' -> append('\f');
+            case 'n' -> append('\n');
+            case 'r' -> append('\r');
+            case 't' -> append('\t');
+            case 'u' -> {
+                // surrogate pairs arrive as two \\u escapes and are appended one char at a time
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(requireByte(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("invalid \\u escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                append((char) value);
+            }
+            default -> throw syntaxError("invalid escape");
+        }
+    }
+
+    private void append(char c) {
+        if (length == chars.length) {
+            char[] bigger = new char[length + Math.max(length, stringBytesAhead() + 1)];
+            System.arraycopy(chars, 0, bigger, 0, length);
+            chars = bigger;
+        }
+        chars[length++] = c;
+    }
+
+    // Bytes up to the closing quote of the string being read, or to the end of the buffer if it
+    // is not in there; a string has at most one char per byte, so this bounds what is left of it
+    private int stringBytesAhead() {
+        for (int i = pos; i < limit; i++) {
+            if (buffer[i] == '"') {
+                return i - pos;
+            }
+            if (buffer[i] == '\\') {
+                i++;
+            }
+        }
+        return limit - pos;
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            int c = requireByte();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                requireByte();
+            }
+        }
+    }
+
+    private void skipLiteral() throws IOException {
+        while (true) {
+            int c = nextByte();
+            if (c == -1) {
+                return;
+            }
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                pos--;
+                return;
+            }
+        }
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed JSON at byte " + (consumed + pos) + ": " + message);
+    }
+}
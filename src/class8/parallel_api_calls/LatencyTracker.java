@@ -0,0 +1,56 @@
+package class8.parallel_api_calls;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// ============================================================================
+// LatencyTracker: percentiles over the most recent windowSize latencies
+//
+// A ring buffer of nanosecond samples; percentile() sorts a copy, which for
+// a window of a few thousand samples costs microseconds - far below the
+// round trip it is used to schedule.
+// ============================================================================
+class LatencyTracker {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+    private long recorded;
+
+    public LatencyTracker(int windowSize) {
+        if (windowSize <= 0)
+            throw new IllegalArgumentException("windowSize must be > 0");
+        this.samples = new long[windowSize];
+    }
+
+    public synchronized void record(Duration latency) {
+        samples[next] = latency.toNanos();
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        recorded++;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    // Samples recorded since creation, including those that left the window
+    public synchronized long recorded() {
+        return recorded;
+    }
+
+    // q in (0, 1], e.g. 0.95; null while there are no samples
+    public Duration percentile(double q) {
+        if (q <= 0 || q > 1)
+            throw new IllegalArgumentException("q must be in (0, 1]");
+        long[] copy;
+        synchronized (this) {
+            if (count == 0) {
+                return null;
+            }
+            copy = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(copy);
+        return Duration.ofNanos(copy[(int) Math.ceil(q * copy.length) - 1]);
+    }
+}
@@ -1,12 +1,13 @@
 package class8.parallel_api_calls;
 
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.net.URI;
 import java.nio.file.*;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class Main {
@@ -14,63 +15,49 @@ public class Main {
     private static final String API_KEY = System.getenv("OPENAI_API_KEY");
     private static final String ENDPOINT = "https://api.openai.com/v1/chat/completions";
 
+    // choices[0].message.content of a chat-completions response, or null if there is none
     public static String extractContent(String json) {
-
-        // Find the `"content":` field AFTER `"message"`
-        String messageMarker = "\"message\":";
-        int messageIndex = json.indexOf(messageMarker);
-        if (messageIndex == -1) return null;
-
-        String contentMarker = "\"content\":";
-        int contentIndex = json.indexOf(contentMarker, messageIndex);
-        if (contentIndex == -1) return null;
-
-        // Find first quote AFTER "content":
-        int startQuote = json.indexOf("\"", contentIndex + contentMarker.length());
-        if (startQuote == -1) return null;
-
-        // Find the closing quote
-        int endQuote = json.indexOf("\"", startQuote + 1);
-        if (endQuote == -1) return null;
-
-        // Extract content
-        String result = json.substring(startQuote + 1, endQuote);
-
-        // Handle escaped newlines or quotes if needed
-        return result.replace("\\n", "\n").replace("\\\"", "\"");
+        try {
+            return ChatResponseParser.firstContent(json);
+        } catch (IOException e) {
+            return null;
+        }
     }
 
 
     // ================================================================
-    // MAKE A SINGLE OPENAI REQUEST
+    // MAKE A SINGLE OPENAI REQUEST (shared HTTP/2 client, reused connections)
     // ================================================================
-    public static String callOpenAI(String prompt) throws IOException {
-        URL url = new URL(ENDPOINT);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Authorization", "Bearer " + API_KEY);
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setDoOutput(true);
-
-        String body = """
-                {
-                  "model": "gpt-4o-mini",
-                  "messages": [
-                    { "role": "system", "content": "You are a helpful assistant that answers questions about multithreading concepts in Java. Please use always max one paragraph." },
-                    { "role": "user", "content": "%s" }
-                  ]
-                }
-                """.formatted(prompt.replace("\"", "'"));
+    private static final ChatClient CLIENT = new ChatClient(URI.create(ENDPOINT), API_KEY);
 
-        try (OutputStream os = conn.getOutputStream()) {
-            os.write(body.getBytes(StandardCharsets.UTF_8));
+    // held to what the endpoint accepts (backs off on 429) and answered from the response cache
+    // when the same question was asked before, also across runs
+    private static final ThrottledChatClient THROTTLED =
+            new ThrottledChatClient(CLIENT, new AdaptiveLimiter(), new TokenBucket(50, 10));
+    private static final CachingChatClient CACHED = cachingClient(THROTTLED);
+
+    private static CachingChatClient cachingClient(ChatCompletion delegate) {
+        try {
+            return new CachingChatClient(delegate, CLIENT.getModel(),
+                    Paths.get(System.getProperty("java.io.tmpdir"), "chat-response-cache"), 1_000, Duration.ofHours(24));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
+
+    public static String callOpenAI(String prompt) throws IOException {
+        return callOpenAI(CACHED, prompt);
+    }
 
-        if (conn.getResponseCode() == 200) {
-            return extractContent(new String(conn.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
-        } else {
-            return new String(conn.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
+    // Legacy single call: an HTTP error answer is returned as its body instead of thrown
+    public static String callOpenAI(ChatCompletion client, String prompt) throws IOException {
+        try {
+            return client.complete(prompt);
+        } catch (ChatException e) {
+            return e.getBody();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + ENDPOINT);
         }
     }
 
@@ -94,21 +81,184 @@ public class Main {
     // CONCURRENT EXECUTION
     // ================================================================
     public static List<String> runConcurrent(List<String> prompts, int threadCount) throws Exception {
-        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, prompts.size()));
-        List<Future<String>> futures = new ArrayList<>();
-        for (String prompt : prompts) {
-            futures.add(executor.submit(() -> callOpenAI(prompt)));
+        return runConcurrent(CACHED, prompts, threadCount);
+    }
+
+    // One answer per prompt, in prompt order; a prompt that fails (including non-2xx answers) or runs
+    // past 5 seconds gets null (and is reported) instead of discarding every other result
+    // (see runCollected for the status)
+    public static List<String> runConcurrent(ChatCompletion client, List<String> prompts, int threadCount) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threadCount, prompts.size())));
+        try {
+            return runCollected(client, prompts, executor,
+                    Duration.ofSeconds(5), null, result -> {
+                        if (!result.isOk()) {
+                            System.out.println("No answer for prompt " + result.index() + ": " + result.status()
+                                    + (result.error() != null ? " - " + result.error() : ""));
+                        }
+                    })
+                    .stream()
+                    .map(result -> result.isOk() ? result.content() : null)
+                    .collect(Collectors.toList());
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
-        List<String> responses = new ArrayList<>();
-        for (Future<String> future : futures) {
-            responses.add(future.get(5, TimeUnit.SECONDS));
+    // ================================================================
+    // COMPLETION ORDER: results as they finish, per-request deadlines
+    // ================================================================
+
+    // Runs every prompt on the executor and hands each PromptResult to onResult as soon as it is known.
+    // A call that has run for requestTimeout is cancelled (TIMED_OUT); when totalTimeout (null = none)
+    // has passed, everything still pending is cancelled (CANCELLED). Returns all results in prompt order.
+    public static List<PromptResult> runCollected(ChatCompletion client, List<String> prompts, ExecutorService executor,
+                                                  Duration requestTimeout, Duration totalTimeout,
+                                                  Consumer<PromptResult> onResult) throws InterruptedException {
+        long begin = System.nanoTime();
+        long requestNanos = requestTimeout.toNanos();
+        boolean hasTotal = totalTimeout != null;
+        long totalDeadline = hasTotal ? begin + totalTimeout.toNanos() : 0; // only compared when hasTotal
+
+        CompletionService<PromptResult> service = new ExecutorCompletionService<>(executor);
+        AtomicLongArray started = new AtomicLongArray(prompts.size()); // nanoTime the call started, 0 = queued
+        Map<Future<PromptResult>, Integer> pending = new HashMap<>();
+        for (int i = 0; i < prompts.size(); i++) {
+            int index = i;
+            String prompt = prompts.get(i);
+            pending.put(service.submit(() -> {
+                long start = System.nanoTime();
+                started.set(index, start | 1); // never 0
+                try {
+                    return PromptResult.ok(index, prompt, client.complete(prompt), Duration.ofNanos(System.nanoTime() - start));
+                } catch (InterruptedException e) {
+                    return PromptResult.cancelled(index, prompt, Duration.ofNanos(System.nanoTime() - start));
+                } catch (Exception e) {
+                    return PromptResult.failed(index, prompt, e.getMessage(), Duration.ofNanos(System.nanoTime() - start));
+                }
+            }), index);
         }
 
-        executor.shutdown();
+        PromptResult[] results = new PromptResult[prompts.size()];
+        while (!pending.isEmpty()) {
+            long now = System.nanoTime();
+            boolean overallExpired = hasTotal && now - totalDeadline >= 0;
+
+            // cancel everything past its deadline; a call that started after we went to sleep
+            // has a deadline at least requestTimeout away, so that is the longest we may sleep
+            long wait = overallExpired ? 0 : hasTotal ? Math.min(requestNanos, totalDeadline - now) : requestNanos;
+            Iterator<Map.Entry<Future<PromptResult>, Integer>> it = pending.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Future<PromptResult>, Integer> entry = it.next();
+                int index = entry.getValue();
+                long start = started.get(index);
+                PromptResult expired = null;
+                if (overallExpired) {
+                    expired = PromptResult.cancelled(index, prompts.get(index),
+                            start == 0 ? Duration.ZERO : Duration.ofNanos(now - start));
+                } else if (start != 0 && now - (start + requestNanos) >= 0) {
+                    expired = PromptResult.timedOut(index, prompts.get(index), requestTimeout);
+                } else if (start != 0) {
+                    wait = Math.min(wait, start + requestNanos - now);
+                }
+                if (expired != null && entry.getKey().cancel(true)) {
+                    it.remove();
+                    results[index] = expired;
+                    onResult.accept(expired);
+                }
+            }
+            if (pending.isEmpty()) {
+                break;
+            }
 
+            Future<PromptResult> done = service.poll(Math.max(wait, 0), TimeUnit.NANOSECONDS);
+            // cancelled futures are queued too and are no longer pending
+            if (done != null && pending.remove(done) != null) {
+                PromptResult result = getResult(done);
+                results[result.index()] = result;
+                onResult.accept(result);
+            }
+        }
+        return Arrays.asList(results);
+    }
 
-        return responses;
+    private static PromptResult getResult(Future<PromptResult> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause()); // the task catches every Exception itself
+        }
+    }
+
+    // ================================================================
+    // VIRTUAL THREADS: one cheap thread per prompt, all of them in flight
+    // ================================================================
+    public static List<String> runVirtual(ChatClient client, List<String> prompts) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> futures = new ArrayList<>();
+            for (String prompt : prompts) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return client.complete(prompt);
+                    } catch (IOException e) {
+                        System.out.println(e.getMessage()); // non-2xx answers included
+                        return null;
+                    }
+                }));
+            }
+
+            List<String> responses = new ArrayList<>();
+            for (Future<String> future : futures) {
+                String response = future.get();
+                if (response != null) {
+                    responses.add(response);
+                }
+            }
+            return responses;
+        }
+    }
+
+    // ================================================================
+    // VIRTUAL THREADS over a stacked client (throttled, cached, ...)
+    // ================================================================
+    public static List<String> runParallel(ChatCompletion client, List<String> prompts) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> futures = new ArrayList<>();
+            for (String prompt : prompts) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return client.complete(prompt);
+                    } catch (IOException e) {
+                        System.out.println(e.getMessage());
+                        return null;
+                    }
+                }));
+            }
+
+            List<String> responses = new ArrayList<>();
+            for (Future<String> future : futures) {
+                String response = future.get();
+                if (response != null) {
+                    responses.add(response);
+                }
+            }
+            return responses;
+        }
+    }
+
+    // ================================================================
+    // ASYNC: sendAsync, no thread waits for a response
+    // ================================================================
+    public static List<String> runAsync(ChatClient client, List<String> prompts) {
+        List<CompletableFuture<String>> futures = prompts.stream()
+                .map(prompt -> client.completeAsync(prompt)
+                        .exceptionally(e -> e.getCause() instanceof ChatException chat ? chat.getBody() : null))
+                .toList();
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     // ================================================================
@@ -150,6 +300,14 @@ public class Main {
 
         System.out.println("Concurrent results: " + concurrentResults.stream().collect(Collectors.joining("\n")));
 
+        // Virtual threads; every mode goes through the same cache, so prompts answered by an
+        // earlier mode (or an earlier run) cost no request here
+        long startV = System.currentTimeMillis();
+        List<String> virtualResults = runParallel(CACHED, prompts);
+        long endV = System.currentTimeMillis();
+        System.out.println("Virtual threads time: " + (endV - startV) + " ms (" + virtualResults.size() + " results, "
+                + THROTTLED.getThrottledCount() + " throttled, cache: " + CACHED.stats() + ")");
+
         System.out.println("======================================");
         System.out.println("Speedup: compare times above manually.");
     }
@@ -0,0 +1,34 @@
+package class8.parallel_api_calls;
+
+import java.time.Duration;
+
+// ============================================================================
+// PromptResult: outcome of one prompt in a collected fan-out
+//
+// content is set for OK only, error for FAILED only. latency is the time the
+// call ran (the deadline for TIMED_OUT, zero if it never started).
+// ============================================================================
+record PromptResult(int index, String prompt, Status status, String content, String error, Duration latency) {
+
+    enum Status { OK, FAILED, TIMED_OUT, CANCELLED }
+
+    static PromptResult ok(int index, String prompt, String content, Duration latency) {
+        return new PromptResult(index, prompt, Status.OK, content, null, latency);
+    }
+
+    static PromptResult failed(int index, String prompt, String error, Duration latency) {
+        return new PromptResult(index, prompt, Status.FAILED, null, error, latency);
+    }
+
+    static PromptResult timedOut(int index, String prompt, Duration deadline) {
+        return new PromptResult(index, prompt, Status.TIMED_OUT, null, null, deadline);
+    }
+
+    static PromptResult cancelled(int index, String prompt, Duration latency) {
+        return new PromptResult(index, prompt, Status.CANCELLED, null, null, latency);
+    }
+
+    boolean isOk() {
+        return status == Status.OK;
+    }
+}
@@ -0,0 +1,277 @@
+package class8.parallel_api_calls;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ============================================================================
+// SseTokenPublisher: a streamed chat completion as a Flow.Publisher of tokens
+//
+// Every subscribe() sends the request (a cold publisher). The body is read
+// line by line as server-sent events; each event's choices[0].delta.content
+// is one token, "data: [DONE]" completes the stream. Lines are requested
+// from the HTTP body only while the subscriber has outstanding demand, so a
+// slow consumer slows down reading instead of buffering the whole answer.
+// Cancelling the subscription aborts the HTTP exchange.
+//
+// Errors can be raised on any thread (the HttpClient completing the
+// exchange, a bad request(n) from inside onNext), so every downstream signal
+// goes through a small drain loop: whoever finds it busy leaves the error
+// for the thread already inside onNext to deliver once that call returns.
+// ============================================================================
+class SseTokenPublisher implements Flow.Publisher<String> {
+
+    private final HttpClient http;
+    private final HttpRequest request;
+
+    SseTokenPublisher(HttpClient http, HttpRequest request) {
+        this.http = http;
+        this.request = request;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        TokenSubscription subscription = new TokenSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        if (subscription.isDone()) {
+            return; // cancelled (or failed) inside onSubscribe: never send the request
+        }
+        subscription.exchange = http.sendAsync(request, info -> {
+            if (info.statusCode() / 100 == 2) {
+                return HttpResponse.BodySubscribers.fromLineSubscriber(subscription);
+            }
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
+                    body -> {
+                        subscription.fail(new ChatException(info.statusCode(), body, info.headers()
+                                .firstValue("Retry-After").map(ChatClient::parseRetryAfter).orElse(null)));
+                        return null;
+                    });
+        });
+        if (subscription.isDone()) {
+            subscription.exchange.cancel(true); // cancelled while the exchange was being set up
+        }
+        subscription.exchange.whenComplete((response, error) -> {
+            if (error != null) {
+                subscription.fail(error);
+            }
+        });
+    }
+
+    // downstream Subscription for the tokens and upstream Subscriber for the body lines
+    private static class TokenSubscription implements Flow.Subscription, Flow.Subscriber<String> {
+        private final Flow.Subscriber<? super String> downstream;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicBoolean lineRequested = new AtomicBoolean();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile Throwable failure;
+        private volatile boolean completed;
+        private boolean terminated; // only touched inside drain()
+        private final StringBuilder data = new StringBuilder();
+        private volatile Flow.Subscription upstream;
+        volatile CompletableFuture<?> exchange;
+
+        TokenSubscription(Flow.Subscriber<? super String> downstream) {
+            this.downstream = downstream;
+        }
+
+        // --- downstream side ---
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("request must be > 0"));
+                return;
+            }
+            demand.accumulateAndGet(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            requestLine();
+        }
+
+        @Override
+        public void cancel() {
+            if (done.compareAndSet(false, true)) {
+                abort();
+            }
+        }
+
+        boolean isDone() {
+            return done.get();
+        }
+
+        // --- upstream side: one line at a time ---
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            if (done.get()) {
+                subscription.cancel();
+                return;
+            }
+            requestLine();
+        }
+
+        @Override
+        public void onNext(String line) {
+            lineRequested.set(false);
+            if (done.get()) {
+                return;
+            }
+            if (line.isEmpty()) {
+                dispatch();
+            } else if (line.startsWith("data:")) {
+                if (!data.isEmpty()) {
+                    data.append('\n');
+                }
+                data.append(line, line.length() > 5 && line.charAt(5) == ' ' ? 6 : 5, line.length());
+            } // comments (":...") and other fields (event:, id:, retry:) carry no tokens
+            requestLine();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            fail(error);
+        }
+
+        @Override
+        public void onComplete() {
+            dispatch(); // an event without its closing blank line
+            complete();
+        }
+
+        private void dispatch() {
+            if (data.isEmpty()) {
+                return;
+            }
+            String event = data.toString();
+            data.setLength(0);
+            if (event.equals("[DONE]")) {
+                if (complete()) {
+                    upstream.request(Long.MAX_VALUE); // drain the rest, so the connection can be reused
+                }
+                return;
+            }
+            String token;
+            try {
+                token = deltaContent(event);
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            if (token != null && !token.isEmpty()) {
+                demand.decrementAndGet();
+                drain(token);
+            }
+        }
+
+        private void requestLine() {
+            Flow.Subscription subscription = upstream;
+            if (subscription != null && !done.get() && demand.get() > 0 && lineRequested.compareAndSet(false, true)) {
+                subscription.request(1);
+            }
+        }
+
+        private boolean complete() {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            completed = true;
+            drain(null);
+            return true;
+        }
+
+        void fail(Throwable error) {
+            if (done.compareAndSet(false, true)) {
+                failure = error;
+                abort();
+                drain(null);
+            }
+        }
+
+        // Delivers token (if any) and then a pending terminal signal, one thread at a time
+        private void drain(String token) {
+            if (wip.getAndIncrement() != 0) {
+                return; // the owner delivers the terminal signal; a token here means the stream already ended
+            }
+            int missed = 1;
+            while (true) {
+                if (token != null && !terminated) {
+                    downstream.onNext(token);
+                }
+                token = null;
+                Throwable error = failure;
+                if (!terminated && (error != null || completed)) {
+                    terminated = true;
+                    if (error != null) {
+                        downstream.onError(error);
+                    } else {
+                        downstream.onComplete();
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void abort() {
+            Flow.Subscription subscription = upstream;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            CompletableFuture<?> future = exchange;
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    // choices[0].delta.content of one "chat.completion.chunk" event, or null
+    static String deltaContent(String event) throws IOException {
+        JsonReader reader = new JsonReader(event.getBytes(StandardCharsets.UTF_8));
+        String content = null;
+        boolean first = true;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextNameIs("choices")) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (!first) {
+                        reader.skipValue(); // only the first choice is streamed
+                        continue;
+                    }
+                    first = false;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (reader.nextNameIs("delta")) {
+                            reader.beginObject();
+                            while (reader.hasNext()) {
+                                if (reader.nextNameIs("content") && reader.peek() == JsonReader.Token.STRING) {
+                                    content = reader.nextString();
+                                } else {
+                                    reader.skipValue();
+                                }
+                            }
+                            reader.endObject();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return content;
+    }
+}
@@ -0,0 +1,64 @@
+package class8.parallel_api_calls;
+
+import java.time.Duration;
+import java.util.*;
+
+// ============================================================================
+// StreamingChatDemo: streamed vs buffered answers against a StubChatServer
+//
+// The stub generates both answers at the same pace, one word per
+// TOKEN_INTERVAL. The buffered call only returns once the last word is
+// generated; the streamed call hands every token to the consumer as it
+// arrives, so downstream work (here: printing) starts after the time to
+// first token while the total stays the same.
+// Options are key=value arguments:
+//   streams=20 latencyMs=300
+// ============================================================================
+public class StreamingChatDemo {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length == 2) {
+                options.put(parts[0], parts[1]);
+            }
+        }
+        int streams = Integer.parseInt(options.getOrDefault("streams", "20"));
+        long latencyMs = Long.parseLong(options.getOrDefault("latencyMs", "300"));
+
+        try (StubChatServer server = new StubChatServer(Duration.ofMillis(latencyMs))) {
+            ChatClient client = new ChatClient(server.uri(), "stub-key");
+
+            client.complete("Warm-up"); // connection and class loading are not part of either timing
+
+            long start = System.nanoTime();
+            String buffered = client.complete("What is a thread?");
+            System.out.println("Buffered: " + (System.nanoTime() - start) / 1_000_000 + " ms until \"" + buffered + "\"");
+
+            start = System.nanoTime();
+            long begin = start;
+            TokenCollector collector = new TokenCollector(token -> System.out.println(
+                    "  +" + (System.nanoTime() - begin) / 1_000_000 + " ms  " + token));
+            client.stream("What is a thread?").subscribe(collector);
+            String streamed = collector.getText().get();
+            System.out.println("Streamed: first token after " + collector.getTimeToFirstToken().toMillis() + " ms, "
+                    + "complete after " + (System.nanoTime() - start) / 1_000_000 + " ms: \"" + streamed + "\"");
+
+            List<TokenCollector> collectors = new ArrayList<>();
+            start = System.nanoTime();
+            for (int i = 0; i < streams; i++) {
+                TokenCollector c = new TokenCollector(token -> { });
+                client.stream("Question " + i).subscribe(c);
+                collectors.add(c);
+            }
+            long maxFirst = 0;
+            for (TokenCollector c : collectors) {
+                c.getText().get();
+                maxFirst = Math.max(maxFirst, c.getTimeToFirstToken().toMillis());
+            }
+            System.out.println(streams + " concurrent streams: all complete after "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms, slowest first token " + maxFirst + " ms");
+        }
+    }
+}
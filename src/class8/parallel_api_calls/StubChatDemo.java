@@ -0,0 +1,58 @@
+package class8.parallel_api_calls;
+
+import java.time.Duration;
+import java.util.*;
+
+// ============================================================================
+// StubChatDemo: the fan-out strategies of Main against a local StubChatServer
+//
+// Every call is pure waiting, so the fixed pool (one thread per core) needs
+// prompts / threads round trips, while virtual threads and sendAsync keep
+// every prompt in flight at once. Options are key=value arguments:
+//   prompts=200 latencyMs=100 threads=<cores>
+// ============================================================================
+public class StubChatDemo {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length == 2) {
+                options.put(parts[0], parts[1]);
+            }
+        }
+        int promptCount = Integer.parseInt(options.getOrDefault("prompts", "200"));
+        long latencyMs = Long.parseLong(options.getOrDefault("latencyMs", "100"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        List<String> prompts = new ArrayList<>();
+        for (int i = 0; i < promptCount; i++) {
+            prompts.add("Question " + i + ": what is a \"thread\"?\nAnswer briefly.");
+        }
+
+        try (StubChatServer server = new StubChatServer(Duration.ofMillis(latencyMs))) {
+            ChatClient client = new ChatClient(server.uri(), "stub-key");
+            System.out.println("Stub at " + server.uri() + ", " + promptCount + " prompts, " + latencyMs + " ms each");
+            System.out.println("======================================");
+
+            long start = System.currentTimeMillis();
+            List<String> fixed = Main.runConcurrent(client, prompts, threads);
+            System.out.println("Fixed pool (" + threads + " threads): " + (System.currentTimeMillis() - start)
+                    + " ms, " + fixed.stream().filter(Objects::nonNull).count() + " of " + fixed.size() + " answered");
+
+            start = System.currentTimeMillis();
+            List<String> virtual = Main.runVirtual(client, prompts);
+            System.out.println("Virtual threads: " + (System.currentTimeMillis() - start)
+                    + " ms, " + virtual.size() + " results");
+
+            start = System.currentTimeMillis();
+            List<String> async = Main.runAsync(client, prompts);
+            System.out.println("sendAsync: " + (System.currentTimeMillis() - start)
+                    + " ms, " + async.size() + " results");
+
+            System.out.println("Sample answer: " + async.get(0));
+            System.out.println("Requests served by the stub: " + server.getRequestCount());
+        }
+    }
+}
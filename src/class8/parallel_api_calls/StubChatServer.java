@@ -0,0 +1,188 @@
+package class8.parallel_api_calls;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// ============================================================================
+// StubChatServer: local stand-in for the chat-completions endpoint
+//
+// Answers POST /v1/chat/completions with an OpenAI-shaped JSON body after a
+// fixed latency, or after tailLatency for a random tailRatio of the requests
+// (slow connections, stragglers). Either way the answer is "generated" at one
+// word per TOKEN_INTERVAL: a request whose JSON body has "stream": true gets
+// server-sent events (the first word after the latency, then one word per
+// interval, then "data: [DONE]"), any other request gets the whole body once
+// the last word would have been generated. A body that is not a JSON object
+// gets 400. Every exchange runs on its own virtual thread, so hundreds of
+// concurrent requests just sleep side by side. Beyond maxConcurrent
+// requests in flight it answers 429 at once, with a Retry-After header when
+// retryAfterSeconds > 0. Binds to an ephemeral port on localhost; use uri()
+// to point a ChatClient at it.
+// ============================================================================
+class StubChatServer implements AutoCloseable {
+
+    static final Duration TOKEN_INTERVAL = Duration.ofMillis(20);
+
+    private final HttpServer server;
+    private final Duration latency;
+    private final double tailRatio;
+    private final Duration tailLatency;
+    private final int maxConcurrent;
+    private final int retryAfterSeconds;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger throttled = new AtomicInteger();
+
+    public StubChatServer(Duration latency) throws IOException {
+        this(latency, 0, Duration.ZERO, Integer.MAX_VALUE, 0);
+    }
+
+    public StubChatServer(Duration latency, int maxConcurrent, int retryAfterSeconds) throws IOException {
+        this(latency, 0, Duration.ZERO, maxConcurrent, retryAfterSeconds);
+    }
+
+    public StubChatServer(Duration latency, double tailRatio, Duration tailLatency) throws IOException {
+        this(latency, tailRatio, tailLatency, Integer.MAX_VALUE, 0);
+    }
+
+    public StubChatServer(Duration latency, double tailRatio, Duration tailLatency,
+                          int maxConcurrent, int retryAfterSeconds) throws IOException {
+        if (tailRatio < 0 || tailRatio > 1)
+            throw new IllegalArgumentException("tailRatio must be in [0, 1]");
+        this.latency = latency;
+        this.tailRatio = tailRatio;
+        this.tailLatency = tailLatency;
+        this.maxConcurrent = maxConcurrent;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    public URI uri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions");
+    }
+
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    public int getThrottledCount() {
+        return throttled.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            boolean stream;
+            try {
+                stream = isStreamRequest(exchange.getRequestBody().readAllBytes());
+            } catch (IOException e) {
+                send(exchange, 400, "{\"error\":{\"message\":\"" + ChatClient.escape(e.getMessage())
+                        + "\",\"type\":\"invalid_request_error\"}}");
+                return;
+            }
+            int id = requests.incrementAndGet();
+            if (inFlight.incrementAndGet() > maxConcurrent) {
+                inFlight.decrementAndGet();
+                throttled.incrementAndGet();
+                if (retryAfterSeconds > 0) {
+                    exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                }
+                send(exchange, 429, "{\"error\":{\"message\":\"Rate limit reached\",\"type\":\"requests\"}}");
+                return;
+            }
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextDouble() < tailRatio ? tailLatency : latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            String[] words = ("Stub answer #" + id + " generated word by word.").split("(?<= )");
+            if (stream) {
+                sendEvents(exchange, words);
+            } else {
+                try {
+                    Thread.sleep(TOKEN_INTERVAL.multipliedBy(words.length - 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                send(exchange, 200, completion(String.join("", words)));
+            }
+        }
+    }
+
+    // The top-level "stream" flag of a chat-completions request body
+    static boolean isStreamRequest(byte[] body) throws IOException {
+        JsonReader reader = new JsonReader(body);
+        boolean stream = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextNameIs("stream") && reader.peek() == JsonReader.Token.BOOLEAN) {
+                stream = reader.nextBoolean();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return stream;
+    }
+
+    private static void sendEvents(HttpExchange exchange, String[] words) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0); // chunked
+        try (OutputStream os = exchange.getResponseBody()) {
+            for (int i = 0; i < words.length; i++) {
+                if (i > 0) {
+                    Thread.sleep(TOKEN_INTERVAL);
+                }
+                os.write(("data: " + chunk(words[i]) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                os.flush();
+            }
+            os.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static String chunk(String token) {
+        return """
+                {"id":"chatcmpl-stub","object":"chat.completion.chunk","model":"gpt-4o-mini",\
+                "choices":[{"index":0,"delta":{"content":"%s"},"finish_reason":null}]}"""
+                .formatted(ChatClient.escape(token));
+    }
+
+    static String completion(String content) {
+        return """
+                {"id":"chatcmpl-stub","object":"chat.completion","model":"gpt-4o-mini",\
+                "choices":[{"index":0,"message":{"role":"assistant","content":"%s"},"finish_reason":"stop"}]}"""
+                .formatted(ChatClient.escape(content));
+    }
+
+    static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,117 @@
+package class8.parallel_api_calls;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// ============================================================================
+// ThrottledChatClient: ChatClient behind a TokenBucket and an AdaptiveLimiter
+//
+// Each attempt takes a token (rate) and a permit (concurrency). 429 and 503
+// answers shrink the limiter and are retried after the server's Retry-After
+// (which also pauses the bucket for everyone) or, without one, after a
+// "full jitter" exponential backoff: random(0, min(maxBackoff, base * 2^n)).
+// Connection errors are retried the same way without touching the limit;
+// other non-2xx answers are returned to the caller at once.
+// ============================================================================
+class ThrottledChatClient implements ChatCompletion {
+
+    private final ChatClient client;
+    private final AdaptiveLimiter limiter;
+    private final TokenBucket bucket;
+    private final int maxRetries;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    public ThrottledChatClient(ChatClient client, AdaptiveLimiter limiter, TokenBucket bucket) {
+        this(client, limiter, bucket, 8, Duration.ofMillis(50), Duration.ofSeconds(10));
+    }
+
+    public ThrottledChatClient(ChatClient client, AdaptiveLimiter limiter, TokenBucket bucket,
+                               int maxRetries, Duration baseBackoff, Duration maxBackoff) {
+        if (maxRetries < 0)
+            throw new IllegalArgumentException("maxRetries must be >= 0");
+        this.client = client;
+        this.limiter = limiter;
+        this.bucket = bucket;
+        this.maxRetries = maxRetries;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Override
+    public String complete(String prompt) throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            bucket.acquire();
+            AdaptiveLimiter.Permit permit = limiter.acquire();
+            Duration delay;
+            boolean settled = false; // the permit was returned as a success or a drop
+            try {
+                String content = client.complete(prompt);
+                limiter.onSuccess(permit);
+                settled = true;
+                return content;
+            } catch (ChatException e) {
+                if (!isThrottled(e.getStatusCode())) {
+                    throw e;
+                }
+                limiter.onDropped(permit);
+                settled = true;
+                throttled.increment();
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                Duration retryAfter = e.getRetryAfter().orElse(null);
+                if (retryAfter != null) {
+                    bucket.pauseFor(retryAfter);
+                    delay = retryAfter.plus(jitter(baseBackoff)); // spread the wake-ups
+                } else {
+                    delay = backoff(attempt);
+                }
+            } catch (IOException e) {
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                delay = backoff(attempt);
+            } finally {
+                if (!settled) {
+                    limiter.onIgnored(permit); // every other outcome, Errors included, gives the permit back unchanged
+                }
+            }
+            retries.increment();
+            Thread.sleep(delay);
+        }
+    }
+
+    private static boolean isThrottled(int statusCode) {
+        return statusCode == 429 || statusCode == 503;
+    }
+
+    Duration backoff(int attempt) {
+        long max = maxBackoff.toNanos();
+        long base = baseBackoff.toNanos();
+        // compare before shifting, base << attempt would overflow for large bases or attempts
+        long ceiling = attempt >= 63 || base > max >> attempt ? max : Math.min(max, base << attempt);
+        return jitter(Duration.ofNanos(ceiling));
+    }
+
+    private static Duration jitter(Duration ceiling) {
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceiling.toNanos() + 1));
+    }
+
+    public AdaptiveLimiter getLimiter() {
+        return limiter;
+    }
+
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+}
@@ -0,0 +1,61 @@
+package class8.parallel_api_calls;
+
+import java.time.Duration;
+import java.util.*;
+
+// ============================================================================
+// ThrottledChatDemo: unthrottled vs adaptive fan-out against a StubChatServer
+// that only accepts maxConcurrent requests at a time and answers 429 beyond
+//
+// The unthrottled run fires everything at once and most prompts come back as
+// rate-limit errors; the ThrottledChatClient converges on the server's
+// capacity and completes every prompt. Options are key=value arguments:
+//   prompts=500 latencyMs=50 maxConcurrent=20 retryAfter=0 rate=1000
+// ============================================================================
+public class ThrottledChatDemo {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length == 2) {
+                options.put(parts[0], parts[1]);
+            }
+        }
+        int promptCount = Integer.parseInt(options.getOrDefault("prompts", "500"));
+        long latencyMs = Long.parseLong(options.getOrDefault("latencyMs", "50"));
+        int maxConcurrent = Integer.parseInt(options.getOrDefault("maxConcurrent", "20"));
+        int retryAfter = Integer.parseInt(options.getOrDefault("retryAfter", "0"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "1000"));
+
+        List<String> prompts = new ArrayList<>();
+        for (int i = 0; i < promptCount; i++) {
+            prompts.add("Question " + i);
+        }
+
+        try (StubChatServer server = new StubChatServer(Duration.ofMillis(latencyMs), maxConcurrent, retryAfter)) {
+            ChatClient client = new ChatClient(server.uri(), "stub-key");
+            System.out.println("Stub accepts " + maxConcurrent + " concurrent requests, " + latencyMs + " ms each; "
+                    + promptCount + " prompts");
+            System.out.println("======================================");
+
+            long start = System.currentTimeMillis();
+            List<String> unthrottled = Main.runVirtual(client, prompts);
+            long answered = unthrottled.stream().filter(r -> r != null && r.startsWith("Stub answer")).count();
+            System.out.println("Unthrottled: " + (System.currentTimeMillis() - start) + " ms, "
+                    + answered + "/" + promptCount + " answered, " + server.getThrottledCount() + " x 429");
+
+            int throttledBefore = server.getThrottledCount();
+            ThrottledChatClient throttled = new ThrottledChatClient(client,
+                    new AdaptiveLimiter(10, 1, 500, 0.5), new TokenBucket(rate, (int) Math.max(1, rate / 10)));
+            start = System.currentTimeMillis();
+            List<String> results = Main.runParallel(throttled, prompts);
+            long millis = System.currentTimeMillis() - start;
+            System.out.println("Adaptive: " + millis + " ms, " + results.size() + "/" + promptCount + " answered, "
+                    + (server.getThrottledCount() - throttledBefore) + " x 429, " + throttled.getRetryCount()
+                    + " retries, final limit " + throttled.getLimiter().getLimit());
+            System.out.println(String.format("Throughput: %.0f prompts/s (server capacity ~%.0f/s)",
+                    results.size() * 1000.0 / millis, maxConcurrent * 1000.0 / latencyMs));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package class8.parallel_api_calls;
+
+import java.time.Duration;
+
+// ============================================================================
+// TokenBucket: request rate limit of permitsPerSecond with bursts of up to
+// burst requests
+//
+// pauseFor() stops handing out tokens until the given delay has passed,
+// which is how a Retry-After from the server holds back every caller, not
+// only the one that got the 429.
+// ============================================================================
+class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0)
+            throw new IllegalArgumentException("permitsPerSecond and burst must be > 0");
+        this.permitsPerNano = permitsPerSecond / 1e9;
+        this.capacity = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+    }
+
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+                lastRefill = now;
+                if (now - pausedUntil < 0) {
+                    waitNanos = pausedUntil - now;
+                } else if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                } else {
+                    waitNanos = (long) Math.ceil((1 - tokens) / permitsPerNano);
+                }
+            }
+            Thread.sleep(Duration.ofNanos(waitNanos));
+        }
+    }
+
+    public synchronized void pauseFor(Duration delay) {
+        long until = System.nanoTime() + delay.toNanos();
+        if (until - pausedUntil > 0) {
+            pausedUntil = until;
+        }
+    }
+}
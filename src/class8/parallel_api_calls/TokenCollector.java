@@ -0,0 +1,65 @@
+package class8.parallel_api_calls;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+// ============================================================================
+// TokenCollector: subscriber that passes each token to a consumer as it
+// arrives, records time to first token, and completes getText() with the
+// whole answer
+// ============================================================================
+class TokenCollector implements Flow.Subscriber<String> {
+
+    private final Consumer<String> onToken;
+    private final StringBuilder text = new StringBuilder();
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+    private final long startNanos = System.nanoTime();
+    private volatile long firstTokenNanos;
+    private Flow.Subscription subscription;
+
+    public TokenCollector(Consumer<String> onToken) {
+        this.onToken = onToken;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(String token) {
+        if (firstTokenNanos == 0) {
+            firstTokenNanos = System.nanoTime();
+        }
+        text.append(token);
+        try {
+            onToken.accept(token);
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            result.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        result.completeExceptionally(error);
+    }
+
+    @Override
+    public void onComplete() {
+        result.complete(text.toString());
+    }
+
+    public CompletableFuture<String> getText() {
+        return result;
+    }
+
+    // null until the first token has arrived
+    public Duration getTimeToFirstToken() {
+        long first = firstTokenNanos;
+        return first == 0 ? null : Duration.ofNanos(first - startNanos);
+    }
+}
@@ -0,0 +1,95 @@
+package class8.parallel_letter_counter;
+
+import java.nio.file.*;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+// ============================================================================
+// LetterFrequencyBenchmark: boxed collectors vs the int[] counting engine
+//
+// Uses src/class8/large_text.txt when present, otherwise generates text of
+// args[0] million chars (default 50) from English words with the odd accented
+// or Greek one. Each variant runs a few warm-up rounds, then the best of 5 timed runs
+// is reported, and the speedup over the boxed baseline is checked against
+// the 10x target.
+// ============================================================================
+public class LetterFrequencyBenchmark {
+
+    private static final String[] WORDS = {
+            "the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "Thread", "Java",
+            "concurrency", "counter", "letter", "frequency", "parallel", "caf\u00e9", "na\u00efve", "\u00dcber",
+            "\u03bb\u03cc\u03b3\u03bf\u03c2" // one Greek word exercises the map fallback
+    };
+
+    public static void main(String[] args) throws Exception {
+        Path filePath = Paths.get("src/class8/large_text.txt");
+        String text;
+        if (Files.exists(filePath)) {
+            text = Files.readString(filePath);
+        } else {
+            int millions = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+            text = generate(millions * 1_000_000, 42);
+        }
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        System.out.println("Text length: " + text.length() + ", threads: " + numThreads);
+
+        Map<Character, Integer> expected = boxed(text);
+        long baseline = time("Boxed collectors (baseline)", () -> boxed(text), expected);
+        long sequential = time("int[] engine, sequential", () -> LetterFrequencyCounter.countSequential(text), expected);
+        long parallel = time("int[] engine, " + numThreads + " threads",
+                () -> LetterFrequencyCounter.countParallel(text, numThreads), expected);
+
+        double speedup = (double) baseline / Math.min(sequential, parallel);
+        System.out.println("Speedup over baseline: " + String.format("%.1f", speedup) + "x "
+                + (speedup >= 10 ? "(meets the 10x target)" : "(BELOW the 10x target)"));
+    }
+
+    // The original implementation: every char boxed and grouped through a HashMap collector
+    static Map<Character, Integer> boxed(String text) {
+        return text.chars()
+                .mapToObj(i -> (char) i)
+                .filter(Character::isLetter)
+                .map(Character::toLowerCase)
+                .collect(Collectors.groupingBy(
+                        c -> c,
+                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
+                ));
+    }
+
+    interface Counter {
+        Map<Character, Integer> count() throws InterruptedException;
+    }
+
+    // best of 5 timed runs after 3 warm-up runs, in ms
+    private static long time(String label, Counter counter, Map<Character, Integer> expected)
+            throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            counter.count();
+        }
+        long best = Long.MAX_VALUE;
+        Map<Character, Integer> result = null;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            result = counter.count();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        result.values().removeIf(n -> n == 0); // countParallel lists a..z even when absent
+        if (!result.equals(expected))
+            throw new IllegalStateException(label + " disagrees with the baseline");
+        long ms = Math.max(1, best / 1_000_000);
+        System.out.println(String.format("%-32s %6d ms", label, ms));
+        return ms;
+    }
+
+    static String generate(int length, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(length + 16);
+        while (sb.length() < length) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+            sb.append(random.nextInt(12) == 0 ? ".\n" : " ");
+        }
+        sb.setLength(length);
+        return sb.toString();
+    }
+}
@@ -6,13 +6,11 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.BinaryOperator;
-import java.util.stream.Collectors;
 
 class ChunkProcessor extends Thread {
     String text;
     int start, end;
-    Map<Character, Integer> result = new HashMap<>();
+    CharTally counts;
 
     public ChunkProcessor(String text, int start, int end) {
         this.text = text;
@@ -22,32 +20,103 @@ class ChunkProcessor extends Thread {
 
     @Override
     public void run() {
-        result = text.substring(start, end).chars()
-                .mapToObj(i -> (char) i)
-                .filter(Character::isLetter)
-                .map(Character::toLowerCase)
-                .collect(Collectors.groupingBy(
-                        c -> c,
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
+        counts = LetterFrequencyCounter.tally(text, start, end);
+    }
+}
+
+// ============================================
+// CharTally: counts per char value
+//
+// Counts live in 256-slot int[] pages, one per
+// high byte of the char, allocated on first
+// use. ASCII and Latin-1 (page 0) are always
+// there, so Western text touches one 1 KB
+// array that stays in L1, and merging costs
+// 256 additions per page in use instead of
+// 65536 per chunk.
+// ============================================
+class CharTally {
+    final int[][] pages = new int[256][];
+
+    CharTally() {
+        pages[0] = new int[256];
+    }
+
+    void add(String text, int start, int end) {
+        int[] latin1 = pages[0];
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 256) {
+                latin1[c]++;
+            } else {
+                page(c >>> 8)[c & 0xFF]++;
+            }
+        }
+    }
+
+    void addAll(CharTally tally) {
+        for (int p = 0; p < pages.length; p++) {
+            int[] from = tally.pages[p];
+            if (from != null) {
+                int[] into = page(p);
+                for (int i = 0; i < into.length; i++) {
+                    into[i] += from[i];
+                }
+            }
+        }
+    }
+
+    private int[] page(int p) {
+        int[] page = pages[p];
+        if (page == null) {
+            page = pages[p] = new int[256];
+        }
+        return page;
     }
 }
 
 
 public class LetterFrequencyCounter {
 
+    // ============================================
+    // Counting engine: one int per char value
+    //
+    // The hot loop only does page[c]++ over the
+    // index range of the original String (no
+    // substring, no boxing). Which chars
+    // are letters and what they lowercase to is
+    // decided once per distinct char in
+    // foldLetters, not once per char of text.
+    // ============================================
+    static CharTally tally(String text, int start, int end) {
+        CharTally tally = new CharTally();
+        tally.add(text, start, end);
+        return tally;
+    }
+
+    // counts per lowercase letter, from counts per char
+    static Map<Character, Integer> foldLetters(CharTally tally) {
+        Map<Character, Integer> letters = new HashMap<>();
+        for (int p = 0; p < tally.pages.length; p++) {
+            int[] page = tally.pages[p];
+            if (page == null) {
+                continue;
+            }
+            for (int i = 0; i < page.length; i++) {
+                char c = (char) (p << 8 | i);
+                if (page[i] != 0 && Character.isLetter(c)) {
+                    letters.merge(Character.toLowerCase(c), page[i], Integer::sum);
+                }
+            }
+        }
+        return letters;
+    }
+
     // ============================================
     // Sequential letter counter
     // ============================================
     public static Map<Character, Integer> countSequential(String text) {
-        return text.chars()
-                .mapToObj(i -> (char) i)
-                .filter(Character::isLetter)
-                .map(Character::toLowerCase)
-                .collect(Collectors.groupingBy(
-                        c -> c,
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
+        return foldLetters(tally(text, 0, text.length()));
     }
 
 
@@ -70,28 +139,20 @@ public class LetterFrequencyCounter {
         for (ChunkProcessor processor : processors) {
             processor.join();
         }
+        CharTally total = new CharTally();
+        for (ChunkProcessor processor : processors) {
+            total.addAll(processor.counts);
+        }
 
-
-        Map<Character, Integer> identity = new HashMap<>();
+        Map<Character, Integer> result = foldLetters(total);
         for (char i = 'a'; i <= 'z'; i++) {
-            identity.put(i, 0);
+            result.putIfAbsent(i, 0);
         }
-
-        return processors.stream()
-                .map(p -> p.result)
-                .reduce(
-                        identity,
-                        (left, right) -> {
-                            right.forEach((k, v) -> left.merge(k, v, Integer::sum));
-                            return left;
-                        }
-                );
-
-
+        return result;
     }
 
     // ============================================
-    // Helper → print histogram
+    // Helper: print histogram
     // ============================================
     public static void printCounts(Map<Character, Integer> map) {
         map.entrySet().forEach(entry -> {
@@ -100,7 +161,7 @@ public class LetterFrequencyCounter {
     }
 
     // ============================================
-    // MAIN — loads text, runs sequential & parallel
+    // MAIN: loads text, runs sequential & parallel
     // ============================================
     public static void main(String[] args) throws Exception {
 